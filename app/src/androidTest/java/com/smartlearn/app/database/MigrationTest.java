@@ -0,0 +1,149 @@
+package com.smartlearn.app.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * MigrationTest Class
+ * 
+ * Runs Migrations against the schemas Room exported to app/schemas.
+ * 
+ * Why this test exists:
+ * - A migration's SQL must produce exactly the schema Room expects,
+ *   otherwise the app crashes on first launch after an update
+ * - runMigrationsAndValidate() compares every table, column, index and
+ *   foreign key with the exported schema of the target version
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    
+    private static final String TEST_DB = "migration-test";
+    
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+        InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+    
+    @Test
+    public void migrate1To2() throws Exception {
+        helper.createDatabase(TEST_DB, 1).close();
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 2, true,
+            Migrations.MIGRATION_1_2);
+        assertIndexes(db, "engagement_samples",
+            "index_engagement_samples_sessionId",
+            "index_engagement_samples_userId_timestampMs");
+        db.close();
+    }
+    
+    @Test
+    public void migrate2To3() throws Exception {
+        helper.createDatabase(TEST_DB, 2).close();
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 3, true,
+            Migrations.MIGRATION_2_3);
+        assertIndexes(db, "focus_sessions",
+            "index_focus_sessions_userId_startTime",
+            "index_focus_sessions_userId_sessionType_isCompleted_duration");
+        db.close();
+    }
+    
+    @Test
+    public void migrate3To4FillsUserStats() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 3);
+        insertSession(db, "user-a", 1000, 2000, 1500000, "FOCUS", true);
+        insertSession(db, "user-a", 3000, 4000, 600000, "FOCUS", false);
+        insertSession(db, "user-a", 5000, 6000, 300000, "BREAK", true);
+        db.close();
+        
+        db = helper.runMigrationsAndValidate(TEST_DB, 4, true, Migrations.MIGRATION_3_4);
+        try (Cursor cursor = db.query("SELECT totalFocusMs, completedFocusSessions, "
+                + "lastSessionTime FROM user_stats WHERE userId = 'user-a'")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(2100000, cursor.getLong(0));
+            assertEquals(1, cursor.getInt(1));
+            assertEquals(6000, cursor.getLong(2));
+        }
+        // Totals come from user_stats now - the index that covered them is gone
+        assertNoIndex(db, "focus_sessions",
+            "index_focus_sessions_userId_sessionType_isCompleted_duration");
+        db.close();
+    }
+    
+    @Test
+    public void migrate4To5() throws Exception {
+        helper.createDatabase(TEST_DB, 4).close();
+        helper.runMigrationsAndValidate(TEST_DB, 5, true, Migrations.MIGRATION_4_5).close();
+    }
+    
+    @Test
+    public void migrateAllKeepsSessions() throws Exception {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1);
+        insertSession(db, "user-a", 1000, 2000, 1500000, "FOCUS", true);
+        db.close();
+        
+        db = helper.runMigrationsAndValidate(TEST_DB, 5, true, Migrations.ALL);
+        assertIndexes(db, "focus_sessions", "index_focus_sessions_userId_startTime");
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM focus_sessions")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(1, cursor.getInt(0));
+        }
+        db.close();
+        
+        // The schema Room compiled into the app must accept the migrated file
+        AppDatabase appDatabase = Room.databaseBuilder(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                AppDatabase.class, TEST_DB)
+            .addMigrations(Migrations.ALL)
+            .build();
+        appDatabase.getOpenHelper().getWritableDatabase();
+        appDatabase.close();
+    }
+    
+    private static void insertSession(SupportSQLiteDatabase db, String userId, long startTime,
+                                      long endTime, long duration, String sessionType,
+                                      boolean isCompleted) {
+        db.execSQL("INSERT INTO focus_sessions "
+                + "(userId, startTime, endTime, duration, sessionType, isCompleted) "
+                + "VALUES (?, ?, ?, ?, ?, ?)",
+            new Object[]{userId, startTime, endTime, duration, sessionType, isCompleted ? 1 : 0});
+    }
+    
+    /**
+     * Fail unless the table has (at least) the named indexes
+     */
+    private static void assertIndexes(SupportSQLiteDatabase db, String table, String... names) {
+        Set<String> indexes = indexNames(db, table);
+        for (String name : names) {
+            assertTrue("Missing index " + name + " on " + table, indexes.contains(name));
+        }
+    }
+    
+    private static void assertNoIndex(SupportSQLiteDatabase db, String table, String name) {
+        assertFalse("Index " + name + " still on " + table, indexNames(db, table).contains(name));
+    }
+    
+    private static Set<String> indexNames(SupportSQLiteDatabase db, String table) {
+        Set<String> indexes = new HashSet<>();
+        try (Cursor cursor = db.query("PRAGMA index_list(`" + table + "`)")) {
+            int nameColumn = cursor.getColumnIndexOrThrow("name");
+            while (cursor.moveToNext()) {
+                indexes.add(cursor.getString(nameColumn));
+            }
+        }
+        return indexes;
+    }
+}
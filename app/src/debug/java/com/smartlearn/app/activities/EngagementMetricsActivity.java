@@ -0,0 +1,99 @@
+package com.smartlearn.app.activities;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.smartlearn.app.R;
+import com.smartlearn.app.ml.EngagementEngine;
+import com.smartlearn.app.ml.EngagementMetrics;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * EngagementMetricsActivity
+ * 
+ * Debug screen for the engagement pipeline.
+ * 
+ * Shows the live EngagementMetrics (frames, detector latency, queue wait,
+ * main-thread dispatch lag, state transitions) and lets you:
+ * - Reset the numbers to start a new measuring period
+ * - Dump the report to a text file (app-specific external storage,
+ *   readable with "adb pull")
+ * 
+ * Opened from the overflow menu in MainActivity. Lives in src/debug, so
+ * release builds contain neither the class nor its layout.
+ */
+public class EngagementMetricsActivity extends AppCompatActivity {
+    
+    private static final long REFRESH_INTERVAL_MS = 1000;
+    private static final String DUMP_FILE_PREFIX = "engagement_metrics_";
+    
+    private TextView textViewMetrics;
+    private EngagementMetrics metrics;
+    
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable refreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            textViewMetrics.setText(metrics.formatReport(SystemClock.elapsedRealtime()));
+            handler.postDelayed(this, REFRESH_INTERVAL_MS);
+        }
+    };
+    
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_engagement_metrics);
+        
+        metrics = EngagementEngine.getInstance(this).getMetrics();
+        
+        textViewMetrics = findViewById(R.id.textViewMetrics);
+        Button buttonReset = findViewById(R.id.buttonResetMetrics);
+        Button buttonDump = findViewById(R.id.buttonDumpMetrics);
+        
+        buttonReset.setOnClickListener(v -> {
+            metrics.reset(SystemClock.elapsedRealtime());
+            refreshRunnable.run();
+        });
+        
+        buttonDump.setOnClickListener(v -> dumpMetrics());
+    }
+    
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refreshRunnable.run();
+    }
+    
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // Only refresh while visible
+        handler.removeCallbacks(refreshRunnable);
+    }
+    
+    /**
+     * Write the report to a file and show where it went
+     */
+    private void dumpMetrics() {
+        File directory = getExternalFilesDir(null);
+        if (directory == null) {
+            directory = getFilesDir();
+        }
+        File file = new File(directory, DUMP_FILE_PREFIX + System.currentTimeMillis() + ".txt");
+        try {
+            metrics.dumpToFile(file, SystemClock.elapsedRealtime());
+            Toast.makeText(this, "Saved to " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Toast.makeText(this, "Dump failed: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+}
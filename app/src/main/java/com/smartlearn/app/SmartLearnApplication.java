@@ -0,0 +1,58 @@
+package com.smartlearn.app;
+
+import android.app.Application;
+
+import com.smartlearn.app.database.SessionCompactor;
+import com.smartlearn.app.database.SessionWriter;
+import com.smartlearn.app.ml.EngagementEngine;
+import com.smartlearn.app.timer.TimerEngine;
+
+/**
+ * SmartLearnApplication Class
+ * 
+ * This is the main application class that runs when the app starts.
+ * 
+ * Why this class exists:
+ * - Initialize global resources
+ * - Setup app-wide configurations
+ * - Can be used to initialize Firebase (though Firebase auto-initializes)
+ * - Warm up the engagement analyzer for users who use the camera
+ * - Write queued focus sessions when the app goes to the background
+ * - Fold old focus sessions into daily rollups (once a day)
+ * - Resume or close a focus session interrupted by a process kill
+ * 
+ * Registered in AndroidManifest.xml (android:name=".SmartLearnApplication")
+ */
+public class SmartLearnApplication extends Application {
+    
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // App initialization code can go here
+        
+        // A Pomodoro session may have been running when the process died.
+        // Before anything else, so a pending timer alarm finds it restored.
+        TimerEngine.getInstance(this).recoverFromJournal();
+        
+        // Create the engagement engine and load the face model and camera
+        // provider in the background, so "Enable camera" responds right away.
+        // Only for users who have used the engagement camera before - others
+        // pay nothing.
+        if (EngagementEngine.isPrewarmEnabled(this)) {
+            EngagementEngine.prewarm(this);
+        }
+        
+        // Keep the session table small (background, at most once a day)
+        SessionCompactor.runIfDue(this);
+    }
+    
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // UI_HIDDEN: the app's UI is no longer visible - good time to write
+        // before the process may be killed
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            SessionWriter.getInstance(this).flush(null);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
 
 import com.google.android.material.bottomnavigation.BottomNavigationView;
+import com.smartlearn.app.BuildConfig;
 import com.smartlearn.app.R;
 import com.smartlearn.app.firebase.FirebaseAuthHelper;
 import com.smartlearn.app.ui.dashboard.DashboardFragment;
@@ -36,6 +37,10 @@ import com.smartlearn.app.ui.profile.ProfileFragment;
  */
 public class MainActivity extends AppCompatActivity {
     
+    // Debug-only screen (src/debug), so it is not referenced as a class
+    private static final String METRICS_ACTIVITY =
+        "com.smartlearn.app.activities.EngagementMetricsActivity";
+    
     private BottomNavigationView bottomNavigationView;
     private FirebaseAuthHelper authHelper;
     
@@ -88,11 +93,17 @@ public class MainActivity extends AppCompatActivity {
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.main_menu, menu);
+        // Metrics screen is debug-only (declared in the debug manifest)
+        menu.findItem(R.id.menu_engagement_metrics).setVisible(BuildConfig.DEBUG);
         return true;
     }
     
     @Override
     public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        if (BuildConfig.DEBUG && item.getItemId() == R.id.menu_engagement_metrics) {
+            startActivity(new Intent().setClassName(this, METRICS_ACTIVITY));
+            return true;
+        }
         if (item.getItemId() == R.id.menu_logout) {
             authHelper.logout();
             Toast.makeText(this, "Logged out", Toast.LENGTH_SHORT).show();
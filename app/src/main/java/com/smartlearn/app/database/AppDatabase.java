@@ -5,8 +5,12 @@ import android.content.Context;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.TypeConverters;
 
+import com.smartlearn.app.models.DailyRollup;
+import com.smartlearn.app.models.EngagementSample;
 import com.smartlearn.app.models.FocusSession;
+import com.smartlearn.app.models.UserStats;
 
 /**
  * AppDatabase Class
@@ -18,6 +22,18 @@ import com.smartlearn.app.models.FocusSession;
  * - Which entities (tables) are in the database
  * - What version the database is
  * 
+ * Version history (see Migrations):
+ * 1 - focus_sessions
+ * 2 - engagement_samples (engagement timeline per session)
+ * 3 - indexes on focus_sessions
+ * 4 - user_stats (running totals per user); drops the totals index
+ * 5 - daily_rollups (per-day totals of compacted old sessions)
+ * 
+ * @TypeConverters: Date columns are stored as epoch milliseconds (see Converters)
+ * 
+ * exportSchema = true: Room writes each version's schema to app/schemas
+ * (commit those files), which MigrationTestHelper uses to test migrations.
+ * 
  * Why Room?
  * - Official Android database library
  * - Works with Java (no Kotlin required)
@@ -25,7 +41,12 @@ import com.smartlearn.app.models.FocusSession;
  * - Automatic SQL generation
  * - Local storage (works offline)
  */
-@Database(entities = {FocusSession.class}, version = 1, exportSchema = false)
+@Database(
+    entities = {FocusSession.class, EngagementSample.class, UserStats.class, DailyRollup.class},
+    version = 5,
+    exportSchema = true
+)
+@TypeConverters(Converters.class)
 public abstract class AppDatabase extends RoomDatabase {
     
     // Singleton pattern - only one database instance
@@ -33,6 +54,8 @@ public abstract class AppDatabase extends RoomDatabase {
     
     // Abstract method - Room generates the implementation
     public abstract FocusSessionDao focusSessionDao();
+    public abstract EngagementSampleDao engagementSampleDao();
+    public abstract DailyRollupDao dailyRollupDao();
     
     /**
      * Get database instance (Singleton pattern)
@@ -48,7 +71,9 @@ public abstract class AppDatabase extends RoomDatabase {
                 context.getApplicationContext(),
                 AppDatabase.class,
                 "smartlearn_database" // Database file name
-            ).build();
+            )
+                .addMigrations(Migrations.ALL)
+                .build();
         }
         return instance;
     }
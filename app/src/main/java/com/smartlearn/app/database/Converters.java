@@ -0,0 +1,32 @@
+package com.smartlearn.app.database;
+
+import androidx.room.TypeConverter;
+
+import java.util.Date;
+
+/**
+ * Converters Class
+ * 
+ * Tells Room how to store types SQLite doesn't know.
+ * 
+ * Why epoch milliseconds?
+ * - Date is stored as an INTEGER (ms since 1970-01-01 UTC)
+ * - Numbers sort and compare correctly, so "startTime >= :fromMs" is an
+ *   index range scan on (userId, startTime)
+ * - No time zone in the database; local days/weeks are computed
+ *   by the caller (see TimeRange)
+ * 
+ * Registered on AppDatabase with @TypeConverters.
+ */
+public class Converters {
+    
+    @TypeConverter
+    public static Date fromEpochMillis(Long epochMillis) {
+        return epochMillis == null ? null : new Date(epochMillis);
+    }
+    
+    @TypeConverter
+    public static Long toEpochMillis(Date date) {
+        return date == null ? null : date.getTime();
+    }
+}
@@ -0,0 +1,141 @@
+package com.smartlearn.app.database;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.smartlearn.app.models.DailyRollup;
+import com.smartlearn.app.models.FocusSession;
+import com.smartlearn.app.utils.Constants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * DailyRollupDao (Data Access Object)
+ * 
+ * Database operations for DailyRollup and for compacting old sessions
+ * into rollups (see SessionCompactor).
+ */
+@Dao
+public interface DailyRollupDao {
+    
+    long DAY_MS = 24L * 60 * 60 * 1000;
+    
+    /**
+     * Fold up to chunkSize of a user's sessions that started before
+     * cutoffMs into daily rollups and delete them
+     * 
+     * One chunk is one transaction, so a long compaction never holds
+     * the database for long and can stop between chunks.
+     * 
+     * @return Number of sessions compacted (less than chunkSize = done)
+     */
+    @Transaction
+    default int compactChunk(String userId, long cutoffMs, int chunkSize, TimeZone timeZone) {
+        List<FocusSession> sessions = getSessionsBefore(userId, cutoffMs, chunkSize);
+        if (sessions.isEmpty()) {
+            return 0;
+        }
+        
+        // Totals per local day: {focusMs, breakMs, completedCount}
+        Map<Long, long[]> totalsByDay = new HashMap<>();
+        List<Long> ids = new ArrayList<>(sessions.size());
+        for (FocusSession session : sessions) {
+            ids.add(session.getId());
+            long startMs = session.getStartTime() != null ? session.getStartTime().getTime() : 0;
+            long day = Math.floorDiv(startMs + timeZone.getOffset(startMs), DAY_MS);
+            
+            long[] totals = totalsByDay.get(day);
+            if (totals == null) {
+                totals = new long[3];
+                totalsByDay.put(day, totals);
+            }
+            boolean isFocus = Constants.SESSION_TYPE_FOCUS.equals(session.getSessionType());
+            if (isFocus) {
+                totals[0] += session.getDuration();
+                if (session.isCompleted()) {
+                    totals[2]++;
+                }
+            } else {
+                totals[1] += session.getDuration();
+            }
+        }
+        
+        for (Map.Entry<Long, long[]> entry : totalsByDay.entrySet()) {
+            long[] totals = entry.getValue();
+            createRollupIfMissing(userId, entry.getKey());
+            addToRollup(userId, entry.getKey(), totals[0], totals[1], (int) totals[2]);
+        }
+        deleteSessions(ids);
+        return sessions.size();
+    }
+    
+    /**
+     * Users that have sessions (every user with a user_stats row)
+     */
+    @Query("SELECT userId FROM user_stats")
+    List<String> getUserIds();
+    
+    /**
+     * Oldest sessions of a user before a time (uses the (userId, startTime) index)
+     */
+    @Query("SELECT * FROM focus_sessions WHERE userId = :userId AND startTime < :cutoffMs " +
+           "ORDER BY startTime LIMIT :limit")
+    List<FocusSession> getSessionsBefore(String userId, long cutoffMs, int limit);
+    
+    /**
+     * Delete up to limit sessions without a user that started before cutoffMs
+     * 
+     * They can't be rolled up (a rollup belongs to a user) and no query
+     * reads them, so past the retention window they are only dropped.
+     * 
+     * @return Number of sessions deleted (less than limit = done)
+     */
+    @Query("DELETE FROM focus_sessions WHERE id IN (" +
+           "SELECT id FROM focus_sessions " +
+           "WHERE userId IS NULL AND startTime < :cutoffMs LIMIT :limit)")
+    int deleteSessionsWithoutUserBefore(long cutoffMs, int limit);
+    
+    @Query("DELETE FROM focus_sessions WHERE id IN (:ids)")
+    void deleteSessions(List<Long> ids);
+    
+    @Query("INSERT OR IGNORE INTO daily_rollups (userId, day, focusMs, breakMs, completedCount) " +
+           "VALUES (:userId, :day, 0, 0, 0)")
+    void createRollupIfMissing(String userId, long day);
+    
+    @Query("UPDATE daily_rollups SET " +
+           "focusMs = focusMs + :focusMs, " +
+           "breakMs = breakMs + :breakMs, " +
+           "completedCount = completedCount + :completedCount " +
+           "WHERE userId = :userId AND day = :day")
+    void addToRollup(String userId, long day, long focusMs, long breakMs, int completedCount);
+    
+    /**
+     * Per-day totals for a history chart, days [fromDay, toDay]
+     * 
+     * Old days come from daily_rollups; days inside the retention window
+     * are summed from the (few) raw sessions. Days are local epoch days,
+     * using a fixed time zone offset for the raw sessions.
+     * 
+     * @param fromMs Start of fromDay in epoch ms (local midnight)
+     * @param toMs End of toDay in epoch ms (exclusive)
+     * @param offsetMs Local time zone offset in ms
+     */
+    @Query("SELECT userId, day, SUM(focusMs) AS focusMs, SUM(breakMs) AS breakMs, " +
+           "SUM(completedCount) AS completedCount FROM (" +
+           "SELECT userId, day, focusMs, breakMs, completedCount FROM daily_rollups " +
+           "WHERE userId = :userId AND day BETWEEN :fromDay AND :toDay " +
+           "UNION ALL " +
+           "SELECT userId, (startTime + :offsetMs) / " + DAY_MS + " AS day, " +
+           "CASE WHEN sessionType = 'FOCUS' THEN duration ELSE 0 END AS focusMs, " +
+           "CASE WHEN sessionType = 'FOCUS' THEN 0 ELSE duration END AS breakMs, " +
+           "CASE WHEN sessionType = 'FOCUS' AND isCompleted = 1 THEN 1 ELSE 0 END AS completedCount " +
+           "FROM focus_sessions WHERE userId = :userId AND startTime >= :fromMs AND startTime < :toMs" +
+           ") GROUP BY userId, day ORDER BY day")
+    List<DailyRollup> getDailyTotals(String userId, long fromDay, long toDay,
+                                     long fromMs, long toMs, long offsetMs);
+}
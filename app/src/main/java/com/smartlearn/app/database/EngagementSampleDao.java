@@ -0,0 +1,64 @@
+package com.smartlearn.app.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import com.smartlearn.app.models.EngagementSample;
+
+import java.util.List;
+
+/**
+ * EngagementSampleDao (Data Access Object)
+ * 
+ * Database operations for EngagementSample.
+ * 
+ * Samples are written in batches (see EngagementSampleRecorder):
+ * one INSERT transaction for many rows instead of one per camera frame.
+ */
+@Dao
+public interface EngagementSampleDao {
+    
+    /**
+     * Insert a batch of samples
+     * Room runs a list insert in a single transaction
+     */
+    @Insert
+    void insertSamples(List<EngagementSample> samples);
+    
+    /**
+     * Attach unlinked samples recorded during a session to that session
+     * 
+     * @return Number of samples linked
+     */
+    @Query("UPDATE engagement_samples SET sessionId = :sessionId " +
+           "WHERE userId = :userId AND sessionId IS NULL " +
+           "AND timestampMs BETWEEN :fromMs AND :toMs")
+    int linkSamplesToSession(long sessionId, String userId, long fromMs, long toMs);
+    
+    /**
+     * Delete up to limit unlinked samples recorded before cutoffMs
+     * (camera used without the timer - they will never be linked)
+     * 
+     * @return Number of samples deleted (less than limit = done)
+     */
+    @Query("DELETE FROM engagement_samples WHERE id IN (" +
+           "SELECT id FROM engagement_samples " +
+           "WHERE sessionId IS NULL AND timestampMs < :cutoffMs LIMIT :limit)")
+    int deleteUnlinkedSamplesBefore(long cutoffMs, int limit);
+    
+    /**
+     * Samples of a session in time order (the engagement timeline)
+     */
+    @Query("SELECT * FROM engagement_samples WHERE sessionId = :sessionId ORDER BY timestampMs")
+    List<EngagementSample> getSamplesForSession(long sessionId);
+    
+    /**
+     * Focus score of a session: share of samples that were FOCUSED (0-1)
+     * 
+     * @return null if the session has no samples
+     */
+    @Query("SELECT AVG(CASE WHEN state = 0 THEN 1.0 ELSE 0.0 END) " +
+           "FROM engagement_samples WHERE sessionId = :sessionId")
+    Float getFocusScore(long sessionId);
+}
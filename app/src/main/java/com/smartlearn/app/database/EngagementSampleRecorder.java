@@ -0,0 +1,205 @@
+package com.smartlearn.app.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.smartlearn.app.ml.EngagementAnalyzer;
+import com.smartlearn.app.models.EngagementSample;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EngagementSampleRecorder Class
+ * 
+ * Collects engagement samples in memory and writes them to Room in batches.
+ * 
+ * Why batches?
+ * - The analyzer produces a sample for every analyzed frame (up to ~10/s)
+ * - One database write per frame means one transaction (and disk sync)
+ *   per frame - slow and battery hungry
+ * 
+ * How it works:
+ * - record() stores the sample in a fixed-size ring buffer (two primitive
+ *   arrays - nothing is allocated on the camera thread)
+ * - A single writer thread drains the buffer into one @Insert(List)
+ *   transaction every flushIntervalMs, or as soon as batchSize samples
+ *   are waiting
+ * - If the writer falls behind, the oldest samples are overwritten
+ *   (counted in getDroppedSamples)
+ * - stop() writes whatever is left
+ * - Samples that no session claims (camera used without the timer) are
+ *   deleted once they are older than the retention window (SessionCompactor)
+ * 
+ * Singleton (like AppDatabase): the engagement camera records samples and
+ * the focus timer links them to the session it saves.
+ */
+public class EngagementSampleRecorder implements EngagementAnalyzer.SampleListener {
+    
+    private static final String TAG = "EngagementSampleRecorder";
+    
+    public static final int DEFAULT_CAPACITY = 512;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 5000;
+    
+    private static EngagementSampleRecorder instance;
+    
+    private final EngagementSampleDao sampleDao;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    
+    // Ring buffer: head is the next write position
+    private final long[] timestamps;
+    private final int[] states;
+    private int head;
+    private int size;
+    private long droppedSamples;
+    
+    private String userId;
+    private boolean recording;
+    private boolean flushQueued;
+    private ScheduledFuture<?> periodicFlush;
+    
+    // Single writer thread - batches are written one after another
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor();
+    private final Runnable flushRunnable = this::writeBatch;
+    // Reused by the writer thread only
+    private final ArrayList<EngagementSample> batch = new ArrayList<>();
+    
+    public static synchronized EngagementSampleRecorder getInstance(Context context) {
+        if (instance == null) {
+            instance = new EngagementSampleRecorder(
+                AppDatabase.getInstance(context).engagementSampleDao()
+            );
+        }
+        return instance;
+    }
+    
+    public EngagementSampleRecorder(EngagementSampleDao sampleDao) {
+        this(sampleDao, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MS);
+    }
+    
+    /**
+     * @param capacity Samples kept in memory before the oldest are overwritten
+     * @param batchSize Write as soon as this many samples are waiting
+     * @param flushIntervalMs Write at least this often while recording
+     */
+    public EngagementSampleRecorder(EngagementSampleDao sampleDao, int capacity,
+                                    int batchSize, long flushIntervalMs) {
+        if (batchSize < 1 || batchSize > capacity) {
+            throw new IllegalArgumentException("Need 1 <= batchSize <= capacity");
+        }
+        this.sampleDao = sampleDao;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.timestamps = new long[capacity];
+        this.states = new int[capacity];
+    }
+    
+    /**
+     * Start recording samples for a user (e.g. when the camera is enabled)
+     */
+    public synchronized void start(String userId) {
+        this.userId = userId;
+        recording = true;
+        if (periodicFlush == null) {
+            periodicFlush = writer.scheduleWithFixedDelay(
+                flushRunnable, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS
+            );
+        }
+    }
+    
+    /**
+     * Stop recording and write the remaining samples
+     */
+    public void stop() {
+        synchronized (this) {
+            recording = false;
+            if (periodicFlush != null) {
+                periodicFlush.cancel(false);
+                periodicFlush = null;
+            }
+        }
+        writer.execute(flushRunnable);
+    }
+    
+    /**
+     * Called by the analyzer for every analyzed frame (camera thread)
+     */
+    @Override
+    public void onEngagementSample(int engagementState) {
+        long nowMs = System.currentTimeMillis();
+        boolean flushNow;
+        synchronized (this) {
+            if (!recording) {
+                return;
+            }
+            timestamps[head] = nowMs;
+            states[head] = engagementState;
+            head = (head + 1) % capacity;
+            if (size < capacity) {
+                size++;
+            } else {
+                droppedSamples++;
+            }
+            flushNow = size >= batchSize && !flushQueued;
+            if (flushNow) {
+                flushQueued = true;
+            }
+        }
+        if (flushNow) {
+            writer.execute(flushRunnable);
+        }
+    }
+    
+    /**
+     * Link the samples recorded during a saved session to it
+     * 
+     * Runs on the writer thread after the samples still in memory are
+     * written, so none of them are missed.
+     */
+    public void linkToSession(long sessionId, String userId, long fromMs, long toMs) {
+        writer.execute(() -> {
+            writeBatch();
+            try {
+                sampleDao.linkSamplesToSession(sessionId, userId, fromMs, toMs);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Failed to link engagement samples to session " + sessionId, e);
+            }
+        });
+    }
+    
+    public synchronized long getDroppedSamples() {
+        return droppedSamples;
+    }
+    
+    /**
+     * Drain the ring buffer into one insert transaction (writer thread)
+     */
+    private void writeBatch() {
+        synchronized (this) {
+            flushQueued = false;
+            int index = (head - size + capacity) % capacity;
+            for (int i = 0; i < size; i++) {
+                batch.add(new EngagementSample(userId, timestamps[index], states[index]));
+                index = (index + 1) % capacity;
+            }
+            size = 0;
+        }
+        
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            sampleDao.insertSamples(batch);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to write " + batch.size() + " engagement samples", e);
+        }
+        batch.clear();
+    }
+}
@@ -3,10 +3,14 @@ package com.smartlearn.app.database;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
 import com.smartlearn.app.models.FocusSession;
+import com.smartlearn.app.models.UserStats;
+import com.smartlearn.app.utils.Constants;
 
 import java.util.List;
+import java.util.TimeZone;
 
 /**
  * FocusSessionDao (Data Access Object)
@@ -20,16 +24,96 @@ import java.util.List;
  * - Separates database logic from business logic
  * - Room generates SQL code for you (no need to write SQL manually)
  * - Type-safe queries (compiler checks for errors)
+ * 
+ * Stats:
+ * - Inserting sessions also updates the user's row in user_stats,
+ *   in the same transaction
+ * - Totals are read from user_stats instead of summing every session
  */
 @Dao
 public interface FocusSessionDao {
     
+    // Rollup days whose local midnight (day * DAY_MS - offsetMs) is in [fromMs, toMs)
+    String ROLLUP_DAYS_IN_RANGE =
+        "AND day >= (:fromMs + :offsetMs + " + DailyRollupDao.DAY_MS + " - 1) / " + DailyRollupDao.DAY_MS + " " +
+        "AND day < (:toMs + :offsetMs + " + DailyRollupDao.DAY_MS + " - 1) / " + DailyRollupDao.DAY_MS + " ";
+    
+    /**
+     * Insert a new focus session and update the user's stats
+     * @Transaction makes both writes succeed or fail together
+     * @return The new row id
+     */
+    @Transaction
+    default long insertSession(FocusSession session) {
+        long id = insertSessionRow(session);
+        addToStats(session);
+        return id;
+    }
+    
     /**
-     * Insert a new focus session
+     * Insert several sessions (and update stats) in one transaction
+     * @return The new row ids, in the same order
+     */
+    @Transaction
+    default List<Long> insertSessions(List<FocusSession> sessions) {
+        List<Long> ids = insertSessionRows(sessions);
+        for (FocusSession session : sessions) {
+            addToStats(session);
+        }
+        return ids;
+    }
+    
+    /**
+     * Raw insert without stats - use insertSession()
      * @Insert annotation tells Room to generate INSERT SQL
      */
     @Insert
-    void insertSession(FocusSession session);
+    long insertSessionRow(FocusSession session);
+    
+    /**
+     * Raw insert without stats - use insertSessions()
+     */
+    @Insert
+    List<Long> insertSessionRows(List<FocusSession> sessions);
+    
+    /**
+     * Add one session to its user's running totals
+     */
+    default void addToStats(FocusSession session) {
+        if (session.getUserId() == null) {
+            return;
+        }
+        boolean isFocus = Constants.SESSION_TYPE_FOCUS.equals(session.getSessionType());
+        long sessionTime = session.getEndTime() != null
+            ? session.getEndTime().getTime()
+            : (session.getStartTime() != null ? session.getStartTime().getTime() : 0);
+        
+        createStatsIfMissing(session.getUserId());
+        updateStats(
+            session.getUserId(),
+            isFocus ? session.getDuration() : 0,
+            isFocus && session.isCompleted() ? 1 : 0,
+            sessionTime
+        );
+    }
+    
+    @Query("INSERT OR IGNORE INTO user_stats (userId, totalFocusMs, completedFocusSessions, lastSessionTime) " +
+           "VALUES (:userId, 0, 0, 0)")
+    void createStatsIfMissing(String userId);
+    
+    @Query("UPDATE user_stats SET " +
+           "totalFocusMs = totalFocusMs + :focusMs, " +
+           "completedFocusSessions = completedFocusSessions + :completedFocusSessions, " +
+           "lastSessionTime = MAX(lastSessionTime, :sessionTime) " +
+           "WHERE userId = :userId")
+    void updateStats(String userId, long focusMs, int completedFocusSessions, long sessionTime);
+    
+    /**
+     * All stats of a user in one lookup
+     * @return null if the user has no sessions yet
+     */
+    @Query("SELECT * FROM user_stats WHERE userId = :userId")
+    UserStats getUserStats(String userId);
     
     /**
      * Get all sessions for a user
@@ -38,15 +122,113 @@ public interface FocusSessionDao {
     @Query("SELECT * FROM focus_sessions WHERE userId = :userId ORDER BY startTime DESC")
     List<FocusSession> getSessionsByUser(String userId);
     
+    /**
+     * First page of a user's history, newest first (keyset pagination)
+     */
+    @Query("SELECT * FROM focus_sessions WHERE userId = :userId " +
+           "ORDER BY startTime DESC, id DESC LIMIT :limit")
+    List<FocusSession> getFirstSessionsPage(String userId, int limit);
+    
+    /**
+     * Next page: sessions older than the cursor (startTime, id), newest first
+     * Uses the (userId, startTime) index - cost does not grow with depth.
+     * "startTime <= :startTime" is the range bound the index seeks on; the
+     * OR only breaks ties (EXPLAIN QUERY PLAN: SEARCH ... USING INDEX
+     * index_focus_sessions_userId_startTime (userId=? AND startTime<?))
+     */
+    @Query("SELECT * FROM focus_sessions WHERE userId = :userId " +
+           "AND startTime <= :startTime " +
+           "AND (startTime < :startTime OR (startTime = :startTime AND id < :id)) " +
+           "ORDER BY startTime DESC, id DESC LIMIT :limit")
+    List<FocusSession> getSessionsPageAfter(String userId, long startTime, long id, int limit);
+    
+    /**
+     * Previous page: sessions newer than the cursor, OLDEST first
+     * (the caller reverses them). Same index seek, from the other side.
+     */
+    @Query("SELECT * FROM focus_sessions WHERE userId = :userId " +
+           "AND startTime >= :startTime " +
+           "AND (startTime > :startTime OR (startTime = :startTime AND id > :id)) " +
+           "ORDER BY startTime ASC, id ASC LIMIT :limit")
+    List<FocusSession> getSessionsPageBefore(String userId, long startTime, long id, int limit);
+    
+    /**
+     * Sessions that started in [fromMs, toMs), oldest first
+     * Index range scan on (userId, startTime) - see TimeRange for windows
+     * 
+     * Only raw sessions: anything older than the retention window has been
+     * folded into daily_rollups (SessionCompactor) and is not returned.
+     */
+    @Query("SELECT * FROM focus_sessions WHERE userId = :userId " +
+           "AND startTime >= :fromMs AND startTime < :toMs " +
+           "ORDER BY startTime ASC, id ASC")
+    List<FocusSession> getSessionsInRange(String userId, long fromMs, long toMs);
+    
+    /**
+     * Totals of sessions that started in [fromMs, toMs), in the local time zone
+     */
+    default SessionRangeStats getStatsInRange(String userId, long fromMs, long toMs) {
+        return getStatsInRange(userId, fromMs, toMs, TimeZone.getDefault().getOffset(fromMs));
+    }
+    
+    /**
+     * Totals of sessions that started in [fromMs, toMs)
+     * One aggregate over the same index range (nothing summed in Java),
+     * plus the daily rollups of compacted days whose local midnight falls in
+     * the range (like DailyRollupDao.getDailyTotals), so old windows don't
+     * come back empty. sessionCount only counts raw sessions - rollups
+     * don't keep one.
+     * 
+     * @param offsetMs Local time zone offset in ms (rollup days are local)
+     */
+    @Query("SELECT " +
+           "COALESCE(SUM(focusMs), 0) AS focusMs, " +
+           "COALESCE(SUM(breakMs), 0) AS breakMs, " +
+           "COALESCE(SUM(completedCount), 0) AS completedFocusSessions, " +
+           "COALESCE(SUM(sessionCount), 0) AS sessionCount FROM (" +
+           "SELECT " +
+           "CASE WHEN sessionType = 'FOCUS' THEN duration ELSE 0 END AS focusMs, " +
+           "CASE WHEN sessionType = 'FOCUS' THEN 0 ELSE duration END AS breakMs, " +
+           "CASE WHEN sessionType = 'FOCUS' AND isCompleted = 1 THEN 1 ELSE 0 END AS completedCount, " +
+           "1 AS sessionCount " +
+           "FROM focus_sessions WHERE userId = :userId " +
+           "AND startTime >= :fromMs AND startTime < :toMs " +
+           "UNION ALL " +
+           "SELECT focusMs, breakMs, completedCount, 0 AS sessionCount FROM daily_rollups " +
+           "WHERE userId = :userId " + ROLLUP_DAYS_IN_RANGE +
+           ")")
+    SessionRangeStats getStatsInRange(String userId, long fromMs, long toMs, long offsetMs);
+    
+    /**
+     * Focus time in [fromMs, toMs) (in milliseconds), in the local time zone
+     */
+    default long getFocusTimeInRange(String userId, long fromMs, long toMs) {
+        return getFocusTimeInRange(userId, fromMs, toMs, TimeZone.getDefault().getOffset(fromMs));
+    }
+    
+    /**
+     * Focus time in [fromMs, toMs) (in milliseconds), rollups included
+     * (see getStatsInRange)
+     */
+    @Query("SELECT COALESCE(SUM(focusMs), 0) FROM (" +
+           "SELECT duration AS focusMs FROM focus_sessions WHERE userId = :userId " +
+           "AND startTime >= :fromMs AND startTime < :toMs AND sessionType = 'FOCUS' " +
+           "UNION ALL " +
+           "SELECT focusMs FROM daily_rollups WHERE userId = :userId " + ROLLUP_DAYS_IN_RANGE +
+           ")")
+    long getFocusTimeInRange(String userId, long fromMs, long toMs, long offsetMs);
+    
     /**
      * Get total focus time for a user (in milliseconds)
+     * Read from user_stats (no scan of focus_sessions)
      */
-    @Query("SELECT SUM(duration) FROM focus_sessions WHERE userId = :userId AND sessionType = 'FOCUS'")
+    @Query("SELECT totalFocusMs FROM user_stats WHERE userId = :userId")
     Long getTotalFocusTime(String userId);
     
     /**
      * Get total number of completed focus sessions
+     * Read from user_stats (no scan of focus_sessions)
      */
-    @Query("SELECT COUNT(*) FROM focus_sessions WHERE userId = :userId AND sessionType = 'FOCUS' AND isCompleted = 1")
+    @Query("SELECT COALESCE((SELECT completedFocusSessions FROM user_stats WHERE userId = :userId), 0)")
     int getTotalSessions(String userId);
 }
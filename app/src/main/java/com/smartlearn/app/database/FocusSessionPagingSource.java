@@ -0,0 +1,92 @@
+package com.smartlearn.app.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingSource;
+import androidx.paging.PagingState;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.smartlearn.app.models.FocusSession;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * FocusSessionPagingSource Class
+ * 
+ * Paging 3 source for a user's session history, newest first.
+ * 
+ * Why keyset pagination?
+ * - getSessionsByUser loads the whole history into memory at once
+ * - OFFSET paging gets slower the further you scroll (SQLite still
+ *   walks all skipped rows)
+ * - Keys here are SessionCursors: each page starts right after the last
+ *   row of the previous one, so every page is an index range scan
+ * 
+ * Pages can be loaded in both directions, so Pager can drop pages that
+ * scrolled far away (PagingConfig maxSize) and reload them later -
+ * memory stays constant for any history length.
+ * 
+ * The source does not watch the table: create a new one (invalidate())
+ * after sessions are written.
+ */
+public class FocusSessionPagingSource extends ListenableFuturePagingSource<SessionCursor, FocusSession> {
+    
+    private final FocusSessionDao sessionDao;
+    private final String userId;
+    private final ListeningExecutorService executor;
+    
+    public FocusSessionPagingSource(FocusSessionDao sessionDao, String userId,
+                                    ListeningExecutorService executor) {
+        this.sessionDao = sessionDao;
+        this.userId = userId;
+        this.executor = executor;
+    }
+    
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<SessionCursor, FocusSession>> loadFuture(
+            @NonNull LoadParams<SessionCursor> params) {
+        return executor.submit(() -> load(params));
+    }
+    
+    private LoadResult<SessionCursor, FocusSession> load(LoadParams<SessionCursor> params) {
+        SessionCursor key = params.getKey();
+        int limit = params.getLoadSize();
+        
+        try {
+            if (params instanceof LoadParams.Prepend && key != null) {
+                // Newer rows come back oldest first - flip them to history order
+                List<FocusSession> page = sessionDao.getSessionsPageBefore(
+                    userId, key.startTime, key.id, limit);
+                Collections.reverse(page);
+                SessionCursor prevKey = page.size() < limit ? null : SessionCursor.of(page.get(0));
+                // Next key is this page's last row, like append: the page that
+                // followed may be dropped and re-appended from here, and the
+                // "after" query must not skip its first row
+                SessionCursor nextKey = page.isEmpty() ? key : SessionCursor.of(page.get(page.size() - 1));
+                return new PagingSource.LoadResult.Page<>(page, prevKey, nextKey);
+            }
+            
+            List<FocusSession> page = key == null
+                ? sessionDao.getFirstSessionsPage(userId, limit)
+                : sessionDao.getSessionsPageAfter(userId, key.startTime, key.id, limit);
+            SessionCursor prevKey = key == null || page.isEmpty() ? null : SessionCursor.of(page.get(0));
+            SessionCursor nextKey = page.size() < limit ? null : SessionCursor.of(page.get(page.size() - 1));
+            return new PagingSource.LoadResult.Page<>(page, prevKey, nextKey);
+        } catch (RuntimeException e) {
+            return new PagingSource.LoadResult.Error<>(e);
+        }
+    }
+    
+    /**
+     * Refresh from the newest session
+     */
+    @Nullable
+    @Override
+    public SessionCursor getRefreshKey(@NonNull PagingState<SessionCursor, FocusSession> state) {
+        return null;
+    }
+}
@@ -0,0 +1,113 @@
+package com.smartlearn.app.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Migrations Class
+ * 
+ * Schema changes between AppDatabase versions.
+ * 
+ * Why migrations?
+ * - Without them Room can only delete and recreate the database,
+ *   which would throw away the user's session history
+ * - Each Migration turns version N into version N + 1 with plain SQL
+ * - The SQL must match what Room generates for the entities exactly
+ */
+public final class Migrations {
+    
+    private Migrations() {
+    }
+    
+    /**
+     * Version 1 -> 2: add the engagement_samples table
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `engagement_samples` ("
+                + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`sessionId` INTEGER, "
+                + "`userId` TEXT, "
+                + "`timestampMs` INTEGER NOT NULL, "
+                + "`state` INTEGER NOT NULL, "
+                + "FOREIGN KEY(`sessionId`) REFERENCES `focus_sessions`(`id`) "
+                + "ON UPDATE NO ACTION ON DELETE CASCADE )");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_engagement_samples_sessionId` "
+                + "ON `engagement_samples` (`sessionId`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_engagement_samples_userId_timestampMs` "
+                + "ON `engagement_samples` (`userId`, `timestampMs`)");
+        }
+    };
+    
+    /**
+     * Version 2 -> 3: indexes on focus_sessions
+     * 
+     * Without them every dashboard count scans the whole table.
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_focus_sessions_userId_startTime` "
+                + "ON `focus_sessions` (`userId`, `startTime`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS "
+                + "`index_focus_sessions_userId_sessionType_isCompleted_duration` "
+                + "ON `focus_sessions` (`userId`, `sessionType`, `isCompleted`, `duration`)");
+        }
+    };
+    
+    /**
+     * Version 3 -> 4: add the user_stats table, filled from existing sessions
+     * 
+     * The all-time SUM/COUNT queries now read user_stats, so the index
+     * that covered them only slows down inserts - it is dropped.
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `user_stats` ("
+                + "`userId` TEXT NOT NULL, "
+                + "`totalFocusMs` INTEGER NOT NULL, "
+                + "`completedFocusSessions` INTEGER NOT NULL, "
+                + "`lastSessionTime` INTEGER NOT NULL, "
+                + "PRIMARY KEY(`userId`))");
+            // One pass over the old history; after this only inserts update it
+            database.execSQL("INSERT INTO `user_stats` "
+                + "(userId, totalFocusMs, completedFocusSessions, lastSessionTime) "
+                + "SELECT userId, "
+                + "SUM(CASE WHEN sessionType = 'FOCUS' THEN duration ELSE 0 END), "
+                + "SUM(CASE WHEN sessionType = 'FOCUS' AND isCompleted = 1 THEN 1 ELSE 0 END), "
+                + "MAX(COALESCE(endTime, startTime, 0)) "
+                + "FROM focus_sessions WHERE userId IS NOT NULL GROUP BY userId");
+            database.execSQL("DROP INDEX IF EXISTS "
+                + "`index_focus_sessions_userId_sessionType_isCompleted_duration`");
+        }
+    };
+    
+    /**
+     * Version 4 -> 5: add the daily_rollups table
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `daily_rollups` ("
+                + "`userId` TEXT NOT NULL, "
+                + "`day` INTEGER NOT NULL, "
+                + "`focusMs` INTEGER NOT NULL, "
+                + "`breakMs` INTEGER NOT NULL, "
+                + "`completedCount` INTEGER NOT NULL, "
+                + "PRIMARY KEY(`userId`, `day`))");
+        }
+    };
+    
+    /**
+     * All migrations, in order (passed to Room.databaseBuilder)
+     */
+    public static final Migration[] ALL = {
+        MIGRATION_1_2,
+        MIGRATION_2_3,
+        MIGRATION_3_4,
+        MIGRATION_4_5
+    };
+}
@@ -0,0 +1,136 @@
+package com.smartlearn.app.database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.smartlearn.app.utils.Constants;
+
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * SessionCompactor Class
+ * 
+ * Keeps focus_sessions small by folding old sessions into daily rollups.
+ * 
+ * Why this class exists:
+ * - Raw session rows grow forever with daily use
+ * - After the retention window only per-day totals are needed
+ *   (user_stats keeps the all-time totals, so they don't change)
+ * - Engagement samples recorded without a timer session are never linked,
+ *   so nothing else would ever delete them
+ * 
+ * How it works:
+ * - For every user, sessions that started more than retentionDays ago are
+ *   folded into daily_rollups and deleted, chunkSize rows per transaction
+ * - Old sessions without a user are deleted (nothing reads them and a
+ *   rollup needs a user)
+ * - Range totals (FocusSessionDao.getStatsInRange) add the rollups back,
+ *   so old windows keep their focus time
+ * - Unlinked engagement samples older than the same window are deleted,
+ *   chunkSize rows per statement (linked ones go with their session)
+ * - runIfDue() runs both in the background at most once a day
+ *   (called from SmartLearnApplication)
+ */
+public class SessionCompactor {
+    
+    private static final String TAG = "SessionCompactor";
+    
+    public static final int DEFAULT_CHUNK_SIZE = 500; // Below SQLite's 999 bind variables
+    private static final long RUN_INTERVAL_MS = DailyRollupDao.DAY_MS;
+    
+    private static final Executor BACKGROUND = Executors.newSingleThreadExecutor();
+    
+    private final DailyRollupDao rollupDao;
+    private final EngagementSampleDao sampleDao;
+    private final int retentionDays;
+    private final int chunkSize;
+    
+    public SessionCompactor(DailyRollupDao rollupDao, EngagementSampleDao sampleDao) {
+        this(rollupDao, sampleDao, Constants.SESSION_RETENTION_DAYS, DEFAULT_CHUNK_SIZE);
+    }
+    
+    /**
+     * @param retentionDays Keep raw sessions for this many days
+     * @param chunkSize Sessions folded per transaction
+     */
+    public SessionCompactor(DailyRollupDao rollupDao, EngagementSampleDao sampleDao,
+                            int retentionDays, int chunkSize) {
+        this.rollupDao = rollupDao;
+        this.sampleDao = sampleDao;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Compact every user's old sessions (blocking - call off the main thread)
+     * 
+     * @return Number of sessions folded into rollups or deleted
+     */
+    public int compact(long nowMs) {
+        long cutoffMs = nowMs - retentionDays * DailyRollupDao.DAY_MS;
+        TimeZone timeZone = TimeZone.getDefault();
+        
+        int total = 0;
+        for (String userId : rollupDao.getUserIds()) {
+            int compacted;
+            do {
+                compacted = rollupDao.compactChunk(userId, cutoffMs, chunkSize, timeZone);
+                total += compacted;
+            } while (compacted == chunkSize);
+        }
+        
+        int deleted;
+        do {
+            deleted = rollupDao.deleteSessionsWithoutUserBefore(cutoffMs, chunkSize);
+            total += deleted;
+        } while (deleted == chunkSize);
+        return total;
+    }
+    
+    /**
+     * Delete unlinked engagement samples older than the retention window
+     * (blocking - call off the main thread)
+     * 
+     * @return Number of samples deleted
+     */
+    public int pruneUnlinkedSamples(long nowMs) {
+        long cutoffMs = nowMs - retentionDays * DailyRollupDao.DAY_MS;
+        int total = 0;
+        int deleted;
+        do {
+            deleted = sampleDao.deleteUnlinkedSamplesBefore(cutoffMs, chunkSize);
+            total += deleted;
+        } while (deleted == chunkSize);
+        return total;
+    }
+    
+    /**
+     * Run a compaction in the background if the last one was over a day ago
+     */
+    public static void runIfDue(Context context) {
+        Context appContext = context.getApplicationContext();
+        SharedPreferences preferences =
+            appContext.getSharedPreferences(Constants.PREFS_NAME, Context.MODE_PRIVATE);
+        long nowMs = System.currentTimeMillis();
+        if (nowMs - preferences.getLong(Constants.PREF_LAST_COMPACTION, 0) < RUN_INTERVAL_MS) {
+            return;
+        }
+        
+        BACKGROUND.execute(() -> {
+            try {
+                AppDatabase database = AppDatabase.getInstance(appContext);
+                SessionCompactor compactor = new SessionCompactor(
+                    database.dailyRollupDao(), database.engagementSampleDao());
+                int compacted = compactor.compact(nowMs);
+                int pruned = compactor.pruneUnlinkedSamples(nowMs);
+                preferences.edit().putLong(Constants.PREF_LAST_COMPACTION, nowMs).apply();
+                Log.d(TAG, "Compacted " + compacted + " sessions, pruned " + pruned + " samples");
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Session compaction failed", e);
+            }
+        });
+    }
+}
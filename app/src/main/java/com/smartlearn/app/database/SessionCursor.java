@@ -0,0 +1,35 @@
+package com.smartlearn.app.database;
+
+import com.smartlearn.app.models.FocusSession;
+
+/**
+ * SessionCursor Class
+ * 
+ * Position in a user's session history for keyset pagination.
+ * 
+ * Why (startTime, id)?
+ * - History is ordered by startTime, newest first
+ * - Two sessions can share a startTime, so id breaks ties and makes
+ *   every position unique
+ * - "Give me the rows after this cursor" is an index range scan on
+ *   (userId, startTime), no matter how deep into the history we are
+ *   (unlike OFFSET, which reads and skips all earlier rows)
+ */
+public final class SessionCursor {
+    
+    public final long startTime; // epoch ms
+    public final long id;
+    
+    public SessionCursor(long startTime, long id) {
+        this.startTime = startTime;
+        this.id = id;
+    }
+    
+    /**
+     * Cursor pointing at a session
+     */
+    public static SessionCursor of(FocusSession session) {
+        long startTime = session.getStartTime() != null ? session.getStartTime().getTime() : 0;
+        return new SessionCursor(startTime, session.getId());
+    }
+}
@@ -0,0 +1,19 @@
+package com.smartlearn.app.database;
+
+/**
+ * SessionRangeStats Class
+ * 
+ * Totals of a user's sessions in a [from, to) time window
+ * (today, this week, a custom range...).
+ * 
+ * Filled by FocusSessionDao.getStatsInRange() - one aggregate query
+ * over an index range instead of loading sessions and adding them up.
+ * Days older than the retention window come from daily_rollups.
+ */
+public class SessionRangeStats {
+    
+    public long focusMs; // Total FOCUS duration
+    public long breakMs; // Total BREAK duration
+    public int completedFocusSessions;
+    public int sessionCount; // Raw sessions, any type (rollups keep no count)
+}
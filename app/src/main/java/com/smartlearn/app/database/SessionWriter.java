@@ -0,0 +1,238 @@
+package com.smartlearn.app.database;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.smartlearn.app.models.FocusSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionWriter Class
+ * 
+ * Write-behind queue for FocusSession inserts.
+ * 
+ * Why this class exists:
+ * - Starting a new Thread for every insert creates unbounded threads
+ * - One insert per transaction is slow once many sessions are written
+ *   (e.g. when syncing history in bulk)
+ * 
+ * How it works:
+ * - enqueue() puts the session in a bounded queue and returns right away
+ * - One writer thread drains everything that is waiting and inserts it
+ *   with a single list insert (one Room transaction)
+ * - Writes are delayed a little (coalesceDelayMs) so sessions arriving
+ *   close together share a transaction; a full batch is written at once
+ * - flush() writes immediately; the app calls it when it goes to the
+ *   background (SmartLearnApplication.onTrimMemory)
+ * - write() adds one session and writes immediately; it is never turned
+ *   away by a full queue (the timer uses it, its session must not be lost)
+ * - After inserting, the engagement samples recorded during each session
+ *   are linked to it (EngagementSampleRecorder)
+ * - A batch that fails stays queued and is retried on the next write
+ * 
+ * Singleton pattern, like AppDatabase.
+ */
+public class SessionWriter {
+    
+    private static final String TAG = "SessionWriter";
+    
+    public static final int DEFAULT_CAPACITY = 256;
+    public static final int DEFAULT_BATCH_SIZE = 32;
+    public static final long DEFAULT_COALESCE_DELAY_MS = 2000;
+    
+    private static SessionWriter instance;
+    
+    /**
+     * Outcome of a flush
+     */
+    public static class FlushResult {
+        public final int written;
+        public final int pending;
+        @Nullable
+        public final Exception error;
+        
+        FlushResult(int written, int pending, @Nullable Exception error) {
+            this.written = written;
+            this.pending = pending;
+            this.error = error;
+        }
+        
+        public boolean isSuccessful() {
+            return error == null;
+        }
+    }
+    
+    /**
+     * Called on the main thread when a requested flush is done
+     */
+    public interface FlushCallback {
+        void onFlushed(FlushResult result);
+    }
+    
+    private final FocusSessionDao sessionDao;
+    private final EngagementSampleRecorder sampleRecorder;
+    private final int batchSize;
+    private final long coalesceDelayMs;
+    
+    private final BlockingQueue<FocusSession> queue;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable writeRunnable = this::writePending;
+    
+    // Writer thread only: sessions taken from the queue but not yet stored
+    private final List<FocusSession> batch = new ArrayList<>();
+    
+    private boolean writeScheduled;
+    private volatile FlushResult lastFlushResult = new FlushResult(0, 0, null);
+    
+    public static synchronized SessionWriter getInstance(Context context) {
+        if (instance == null) {
+            instance = new SessionWriter(
+                AppDatabase.getInstance(context).focusSessionDao(),
+                EngagementSampleRecorder.getInstance(context)
+            );
+        }
+        return instance;
+    }
+    
+    public SessionWriter(FocusSessionDao sessionDao, EngagementSampleRecorder sampleRecorder) {
+        this(sessionDao, sampleRecorder, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_COALESCE_DELAY_MS);
+    }
+    
+    /**
+     * @param capacity Most sessions that may wait in memory
+     * @param batchSize Write right away once this many are waiting
+     * @param coalesceDelayMs How long a single session may wait for company
+     */
+    public SessionWriter(FocusSessionDao sessionDao, EngagementSampleRecorder sampleRecorder,
+                         int capacity, int batchSize, long coalesceDelayMs) {
+        this.sessionDao = sessionDao;
+        this.sampleRecorder = sampleRecorder;
+        this.batchSize = batchSize;
+        this.coalesceDelayMs = coalesceDelayMs;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+    
+    /**
+     * Queue a finished session for writing (any thread)
+     * 
+     * @return false if the queue is full; the session was not queued
+     */
+    public boolean enqueue(FocusSession session) {
+        if (!queue.offer(session)) {
+            Log.w(TAG, "Session queue full, flushing");
+            flush(null);
+            return false;
+        }
+        
+        synchronized (this) {
+            if (queue.size() >= batchSize) {
+                writer.execute(writeRunnable);
+            } else if (!writeScheduled) {
+                writeScheduled = true;
+                writer.schedule(writeRunnable, coalesceDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Write everything that is waiting now
+     * 
+     * @param callback Told the result on the main thread (may be null)
+     */
+    public void flush(@Nullable FlushCallback callback) {
+        writeNow(null, callback);
+    }
+    
+    /**
+     * Write one session now, together with everything waiting (any thread)
+     * 
+     * Unlike enqueue() this never drops the session: it skips the bounded
+     * queue. If the write fails the session stays in the batch and is
+     * retried with the next write.
+     * 
+     * @param callback Told the result on the main thread (may be null);
+     *                 a successful result means this session is in Room
+     */
+    public void write(FocusSession session, @Nullable FlushCallback callback) {
+        writeNow(session, callback);
+    }
+    
+    private void writeNow(@Nullable FocusSession session, @Nullable FlushCallback callback) {
+        writer.execute(() -> {
+            if (session != null) {
+                batch.add(session);
+            }
+            writePending();
+            if (callback != null) {
+                FlushResult result = lastFlushResult;
+                mainHandler.post(() -> callback.onFlushed(result));
+            }
+        });
+    }
+    
+    /**
+     * Result of the most recent write
+     */
+    public FlushResult getLastFlushResult() {
+        return lastFlushResult;
+    }
+    
+    /**
+     * Sessions waiting to be written (queued or retrying)
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+    
+    /**
+     * Drain the queue into one insert transaction (writer thread)
+     */
+    private void writePending() {
+        synchronized (this) {
+            writeScheduled = false;
+        }
+        queue.drainTo(batch);
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        int count = batch.size();
+        try {
+            List<Long> ids = sessionDao.insertSessions(batch);
+            for (int i = 0; i < count; i++) {
+                linkSamples(ids.get(i), batch.get(i));
+            }
+            batch.clear();
+            lastFlushResult = new FlushResult(count, queue.size(), null);
+        } catch (RuntimeException e) {
+            // Keep the batch - it is retried with the next write
+            Log.e(TAG, "Failed to write " + count + " sessions", e);
+            lastFlushResult = new FlushResult(0, count + queue.size(), e);
+        }
+    }
+    
+    private void linkSamples(long sessionId, FocusSession session) {
+        if (session.getStartTime() == null || session.getEndTime() == null) {
+            return;
+        }
+        sampleRecorder.linkToSession(
+            sessionId,
+            session.getUserId(),
+            session.getStartTime().getTime(),
+            session.getEndTime().getTime()
+        );
+    }
+}
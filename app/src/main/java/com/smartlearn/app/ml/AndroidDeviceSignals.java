@@ -0,0 +1,69 @@
+package com.smartlearn.app.ml;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.PowerManager;
+
+/**
+ * AndroidDeviceSignals Class
+ *
+ * DeviceSignals read from the platform:
+ * - Battery saver from PowerManager
+ * - Battery level and charging state from the sticky ACTION_BATTERY_CHANGED
+ *   broadcast (no receiver has to be registered)
+ * - Thermal status from PowerManager (Android 10+)
+ */
+public class AndroidDeviceSignals implements DeviceSignals {
+
+    private static final IntentFilter BATTERY_FILTER =
+        new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
+
+    private final Context appContext;
+    private final PowerManager powerManager;
+
+    public AndroidDeviceSignals(Context context) {
+        this.appContext = context.getApplicationContext();
+        this.powerManager = (PowerManager) appContext.getSystemService(Context.POWER_SERVICE);
+    }
+
+    @Override
+    public boolean isPowerSaveMode() {
+        return powerManager != null && powerManager.isPowerSaveMode();
+    }
+
+    @Override
+    public int getBatteryPercent() {
+        Intent battery = appContext.registerReceiver(null, BATTERY_FILTER);
+        if (battery == null) {
+            return BATTERY_UNKNOWN;
+        }
+        int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        if (level < 0 || scale <= 0) {
+            return BATTERY_UNKNOWN;
+        }
+        return level * 100 / scale;
+    }
+
+    @Override
+    public boolean isCharging() {
+        Intent battery = appContext.registerReceiver(null, BATTERY_FILTER);
+        if (battery == null) {
+            return false;
+        }
+        int status = battery.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+        return status == BatteryManager.BATTERY_STATUS_CHARGING
+            || status == BatteryManager.BATTERY_STATUS_FULL;
+    }
+
+    @Override
+    public int getThermalStatus() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q || powerManager == null) {
+            return PowerManager.THERMAL_STATUS_NONE;
+        }
+        return powerManager.getCurrentThermalStatus();
+    }
+}
@@ -0,0 +1,82 @@
+package com.smartlearn.app.ml;
+
+/**
+ * DetectedFace Class
+ *
+ * One face as reported by a FaceDetectorClient.
+ *
+ * Why not use ML Kit's Face directly?
+ * - Face cannot be created outside ML Kit, so tests and the replay
+ *   harness could not produce their own results
+ * - This class only uses plain Java types, so it works in JVM tests
+ * - Instances are reused by the detector clients (no allocation per frame)
+ *
+ * Bounding box is in upright image coordinates, like ML Kit.
+ * Probabilities are NaN when the detector did not compute them.
+ */
+public class DetectedFace {
+
+    public static final int NO_TRACKING_ID = -1;
+
+    // Bounding box
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public int trackingId = NO_TRACKING_ID;
+
+    public float leftEyeOpenProbability = Float.NaN;
+    public float rightEyeOpenProbability = Float.NaN;
+    public float smilingProbability = Float.NaN;
+
+    // Head rotation in degrees (Y = left/right, Z = tilt)
+    public float headEulerAngleY;
+    public float headEulerAngleZ;
+
+    // Distance from nose base to bottom of mouth relative to face height
+    // (needs landmarks; NaN otherwise)
+    public float mouthOpenRatio = Float.NaN;
+
+    public int width() {
+        return right - left;
+    }
+
+    public int height() {
+        return bottom - top;
+    }
+
+    /**
+     * Copy all values from another face
+     */
+    public void set(DetectedFace other) {
+        left = other.left;
+        top = other.top;
+        right = other.right;
+        bottom = other.bottom;
+        trackingId = other.trackingId;
+        leftEyeOpenProbability = other.leftEyeOpenProbability;
+        rightEyeOpenProbability = other.rightEyeOpenProbability;
+        smilingProbability = other.smilingProbability;
+        headEulerAngleY = other.headEulerAngleY;
+        headEulerAngleZ = other.headEulerAngleZ;
+        mouthOpenRatio = other.mouthOpenRatio;
+    }
+
+    /**
+     * Clear back to "nothing known"
+     */
+    public void reset() {
+        left = 0;
+        top = 0;
+        right = 0;
+        bottom = 0;
+        trackingId = NO_TRACKING_ID;
+        leftEyeOpenProbability = Float.NaN;
+        rightEyeOpenProbability = Float.NaN;
+        smilingProbability = Float.NaN;
+        headEulerAngleY = 0;
+        headEulerAngleZ = 0;
+        mouthOpenRatio = Float.NaN;
+    }
+}
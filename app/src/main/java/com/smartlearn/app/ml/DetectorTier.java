@@ -0,0 +1,87 @@
+package com.smartlearn.app.ml;
+
+import com.google.mlkit.vision.face.FaceDetectorOptions;
+
+/**
+ * DetectorTier Class
+ *
+ * How much work the face detector does per frame.
+ *
+ * Why tiers?
+ * - Landmark extraction and classification each cost time on every frame
+ * - The active EngagementRules tell us which features are actually read,
+ *   so we only turn on what the rules need
+ *
+ * Tiers:
+ * - CLASSIFICATION: eye-open / smiling probabilities, no landmarks
+ *   (enough for the default rules)
+ * - LANDMARKS: landmarks, no classification
+ * - FULL: landmarks and classification
+ *
+ * Bounding box, tracking id and head pose are available in every tier.
+ *
+ * The rules are the only reader of classification and landmark features:
+ * EngagementStateMachine debounces the rules' per-frame state and
+ * FaceTrackCache only uses boxes and tracking ids. So a rule set without
+ * eye rules (e.g. mouth-only) can drop classification - it has no way
+ * to report TIRED from the eyes in the first place.
+ */
+public final class DetectorTier {
+
+    public static final int CLASSIFICATION = 0;
+    public static final int LANDMARKS = 1;
+    public static final int FULL = 2;
+
+    private DetectorTier() {
+    }
+
+    /**
+     * Lowest tier that provides every feature the rules read
+     */
+    public static int forRules(EngagementRules rules) {
+        boolean needsClassification = rules.usesFeature(FaceFeatures.LEFT_EYE_OPEN)
+            || rules.usesFeature(FaceFeatures.RIGHT_EYE_OPEN)
+            || rules.usesFeature(FaceFeatures.SMILING);
+        boolean needsLandmarks = rules.usesFeature(FaceFeatures.MOUTH_OPEN);
+
+        if (needsLandmarks && needsClassification) {
+            return FULL;
+        } else if (needsLandmarks) {
+            return LANDMARKS;
+        }
+        return CLASSIFICATION;
+    }
+
+    /**
+     * ML Kit options for a tier
+     * We always use fast mode and tracking for real-time detection
+     */
+    public static FaceDetectorOptions options(int tier) {
+        boolean landmarks = tier == LANDMARKS || tier == FULL;
+        boolean classification = tier == CLASSIFICATION || tier == FULL;
+
+        return new FaceDetectorOptions.Builder()
+            .setPerformanceMode(FaceDetectorOptions.PERFORMANCE_MODE_FAST)
+            .setLandmarkMode(landmarks
+                ? FaceDetectorOptions.LANDMARK_MODE_ALL
+                : FaceDetectorOptions.LANDMARK_MODE_NONE)
+            .setClassificationMode(classification
+                ? FaceDetectorOptions.CLASSIFICATION_MODE_ALL
+                : FaceDetectorOptions.CLASSIFICATION_MODE_NONE)
+            .enableTracking()
+            .build();
+    }
+
+    public static String name(int tier) {
+        switch (tier) {
+            case CLASSIFICATION:
+                return "CLASSIFICATION";
+            case LANDMARKS:
+                return "LANDMARKS";
+            case FULL:
+                return "FULL";
+            default:
+                return "UNKNOWN";
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.smartlearn.app.ml;
+
+/**
+ * DeviceSignals Interface
+ *
+ * Platform state the WorkloadScheduler bases its decisions on.
+ *
+ * Why an interface?
+ * - The scheduling policy is plain logic; behind this interface it can be
+ *   exercised with fake values (hot phone, low battery, ...) without a device
+ * - AndroidDeviceSignals reads the real values
+ */
+public interface DeviceSignals {
+
+    // Battery level when it is not known
+    int BATTERY_UNKNOWN = -1;
+
+    /**
+     * Whether battery saver is on
+     */
+    boolean isPowerSaveMode();
+
+    /**
+     * Battery level in percent (0-100), or BATTERY_UNKNOWN
+     */
+    int getBatteryPercent();
+
+    /**
+     * Whether the device is plugged in
+     */
+    boolean isCharging();
+
+    /**
+     * One of the PowerManager.THERMAL_STATUS_* values
+     * (THERMAL_STATUS_NONE before Android 10)
+     */
+    int getThermalStatus();
+}
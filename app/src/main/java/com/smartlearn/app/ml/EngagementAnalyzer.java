@@ -1,15 +1,17 @@
 package com.smartlearn.app.ml;
 
+import android.os.SystemClock;
 import android.util.Log;
 
+import androidx.annotation.Nullable;
+import androidx.camera.core.ImageProxy;
+
+import com.google.android.gms.tasks.TaskExecutors;
 import com.google.mlkit.vision.common.InputImage;
-import com.google.mlkit.vision.face.Face;
-import com.google.mlkit.vision.face.FaceDetection;
-import com.google.mlkit.vision.face.FaceDetector;
-import com.google.mlkit.vision.face.FaceDetectorOptions;
-import com.smartlearn.app.utils.Constants;
 
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * EngagementAnalyzer Class
@@ -23,9 +25,10 @@ import java.util.List;
  * - No data sent to servers
  * 
  * What it detects:
- * - Eyes closed (tired)
- * - Yawning (distracted)
- * - Face position (focused/distracted)
+ * - Per-frame face features (FaceFeatures): eyes, smile, head pose,
+ *   face size and how long the face has been absent
+ * - Engagement state from those features using EngagementRules
+ *   (threshold rules that can be tuned without code changes)
  * 
  * Privacy Rules:
  * - Camera is OFF by default
@@ -36,7 +39,63 @@ import java.util.List;
 public class EngagementAnalyzer {
     
     private static final String TAG = "EngagementAnalyzer";
-    private FaceDetector faceDetector;
+    
+    // Longer "queue waits" mean the camera uses a different time base
+    private static final long MAX_PLAUSIBLE_QUEUE_WAIT_MS = 10_000;
+    
+    private final FaceDetectorClient detectorClient;
+    // False when the detector is shared (e.g. EngagementEngine) and must stay open
+    private final boolean ownsDetector;
+    
+    // Time source for the governor and state machine (replaceable for replay)
+    private volatile Clock clock = SystemClock::elapsedRealtime;
+    
+    // Optional - decides how often frames are analyzed (null = every frame)
+    @Nullable
+    private FrameRateGovernor frameRateGovernor;
+    
+    // Optional - detect on a crop around the last face (null = full frame)
+    @Nullable
+    private FaceRoiTracker roiTracker;
+    
+    // Optional - counters and latency histograms (null = not measured)
+    @Nullable
+    private volatile EngagementMetrics metrics;
+    
+    // When true no new frames are analyzed (e.g. the phone is too hot)
+    private volatile boolean paused;
+    
+    // Rules that turn face features into an engagement state
+    private volatile EngagementRules rules = EngagementRules.defaults();
+    
+    // When a face was last seen (for the absenceMs feature), -1 = not yet
+    private volatile long lastFaceSeenMs = -1;
+    
+    // Optional - smooths results and reports only state changes (null = every frame)
+    @Nullable
+    private EngagementStateMachine stateMachine;
+    
+    // Optional - picks the primary user among several faces and keeps a
+    // state machine per user (replaces stateMachine when set)
+    @Nullable
+    private FaceTrackCache faceTrackCache;
+    
+    // Last state given to the listener/callback (smoothed modes only)
+    private volatile int lastReportedState = EngagementState.NONE;
+    
+    // Optional - receives the state of every analyzed frame (e.g. for storage)
+    @Nullable
+    private volatile SampleListener sampleListener;
+    
+    // Receives results for analyzeFrame() - registered once
+    @Nullable
+    private volatile EngagementListener engagementListener;
+    
+    // Where detection results are handled (ML Kit default is the main thread)
+    private Executor callbackExecutor = TaskExecutors.MAIN_THREAD;
+    
+    // Per-frame request objects are reused instead of allocating listeners
+    private final ArrayDeque<DetectionRequest> freeRequests = new ArrayDeque<>();
     
     // Interface for callbacks
     public interface EngagementCallback {
@@ -44,18 +103,208 @@ public class EngagementAnalyzer {
         void onError(String error);
     }
     
-    // Constructor
+    /**
+     * Allocation-free listener using EngagementState codes
+     * 
+     * Registered once with setEngagementListener() instead of passing
+     * a new callback with every frame.
+     */
+    public interface EngagementListener {
+        void onEngagementState(int engagementState);
+        void onEngagementError(Exception error);
+    }
+    
+    /**
+     * Receives the engagement state of every analyzed frame
+     * (smoothed when a state machine is used), not only changes
+     */
+    public interface SampleListener {
+        void onEngagementSample(int engagementState);
+    }
+    
+    /**
+     * Millisecond time source
+     */
+    public interface Clock {
+        long nowMs();
+    }
+    
+    /**
+     * Told when the detector no longer needs a camera frame
+     */
+    public interface FrameReleaseListener {
+        void onFrameReleased(ImageProxy imageProxy);
+    }
+    
+    // Constructor - uses ML Kit
     public EngagementAnalyzer() {
-        // Configure Face Detector
-        // We use fast mode for real-time detection
-        FaceDetectorOptions options = new FaceDetectorOptions.Builder()
-            .setPerformanceMode(FaceDetectorOptions.PERFORMANCE_MODE_FAST)
-            .setLandmarkMode(FaceDetectorOptions.LANDMARK_MODE_ALL)
-            .setClassificationMode(FaceDetectorOptions.CLASSIFICATION_MODE_ALL)
-            .enableTracking()
-            .build();
-        
-        faceDetector = FaceDetection.getClient(options);
+        this(new MlKitFaceDetectorClient());
+    }
+    
+    /**
+     * Use a specific detector (e.g. a deterministic stand-in for replay)
+     */
+    public EngagementAnalyzer(FaceDetectorClient detectorClient) {
+        this(detectorClient, true);
+    }
+    
+    /**
+     * @param ownsDetector Whether release() should close the detector
+     */
+    public EngagementAnalyzer(FaceDetectorClient detectorClient, boolean ownsDetector) {
+        this.detectorClient = detectorClient;
+        this.ownsDetector = ownsDetector;
+        detectorClient.setTier(DetectorTier.forRules(rules));
+    }
+    
+    /**
+     * Replace the time source (defaults to SystemClock.elapsedRealtime)
+     * 
+     * The replay harness uses recorded frame timestamps here so smoothing
+     * and the frame-rate governor behave as they did on the device.
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+    
+    public Clock getClock() {
+        return clock;
+    }
+    
+    /**
+     * Set a governor to reduce the analysis rate when engagement is steady
+     */
+    public void setFrameRateGovernor(@Nullable FrameRateGovernor frameRateGovernor) {
+        this.frameRateGovernor = frameRateGovernor;
+    }
+    
+    @Nullable
+    public FrameRateGovernor getFrameRateGovernor() {
+        return frameRateGovernor;
+    }
+    
+    /**
+     * Enable region-of-interest mode: detect on a downscaled crop around the
+     * last tracked face instead of the full frame
+     */
+    public void setRoiTracker(@Nullable FaceRoiTracker roiTracker) {
+        this.roiTracker = roiTracker;
+    }
+    
+    /**
+     * Record counters and latencies into these metrics
+     */
+    public void setMetrics(@Nullable EngagementMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    @Nullable
+    public EngagementMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Debounce results through a state machine
+     * 
+     * The machine smooths the state the rules give each frame. When set,
+     * the callback is only called when the smoothed state actually
+     * changes instead of once per frame.
+     */
+    public void setStateMachine(@Nullable EngagementStateMachine stateMachine) {
+        this.stateMachine = stateMachine;
+    }
+    
+    /**
+     * Track several faces and score only the primary user
+     * 
+     * Each tracked user gets their own state machine from the cache,
+     * so results are debounced as with setStateMachine().
+     */
+    public void setFaceTrackCache(@Nullable FaceTrackCache faceTrackCache) {
+        this.faceTrackCache = faceTrackCache;
+    }
+    
+    /**
+     * Start a new session: forget tracked faces, smoothing and the last
+     * reported state (the next frame reports a state again)
+     */
+    public void reset() {
+        EngagementStateMachine machine = stateMachine;
+        if (machine != null) {
+            machine.reset();
+        }
+        FaceTrackCache trackCache = faceTrackCache;
+        if (trackCache != null) {
+            trackCache.reset();
+        }
+        FaceRoiTracker tracker = roiTracker;
+        if (tracker != null) {
+            tracker.reset();
+        }
+        lastFaceSeenMs = -1;
+        lastReportedState = EngagementState.NONE;
+    }
+    
+    /**
+     * Replace the engagement rules (e.g. rules loaded from assets)
+     * 
+     * The detector is switched to the lowest tier that provides every
+     * feature the new rules read.
+     */
+    public void setRules(EngagementRules rules) {
+        this.rules = rules;
+        detectorClient.setTier(DetectorTier.forRules(rules));
+    }
+    
+    public EngagementRules getRules() {
+        return rules;
+    }
+    
+    /**
+     * Register the listener that receives analyzeFrame() results
+     */
+    public void setEngagementListener(@Nullable EngagementListener engagementListener) {
+        this.engagementListener = engagementListener;
+    }
+    
+    /**
+     * Register a listener for per-frame samples (e.g. the timeline recorder)
+     */
+    public void setSampleListener(@Nullable SampleListener sampleListener) {
+        this.sampleListener = sampleListener;
+    }
+    
+    /**
+     * Run result handling (and listeners) on this executor
+     * 
+     * Passing the camera executor keeps per-frame work off the main thread;
+     * the UI then only has to react to state changes.
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+    
+    /**
+     * Stop (or resume) analyzing new frames without unbinding the camera
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+    
+    public boolean isPaused() {
+        return paused;
+    }
+    
+    /**
+     * Should the frame arriving now be analyzed?
+     * Always true when no governor is set (and not paused).
+     */
+    public boolean shouldAnalyzeFrame(long nowMs) {
+        if (paused) {
+            return false;
+        }
+        FrameRateGovernor governor = frameRateGovernor;
+        return governor == null || governor.shouldAnalyze(nowMs);
     }
     
     /**
@@ -65,65 +314,283 @@ public class EngagementAnalyzer {
      * @param callback Called when analysis completes
      */
     public void analyzeEngagement(InputImage image, EngagementCallback callback) {
-        faceDetector.process(image)
-            .addOnSuccessListener(faces -> {
-                if (faces.isEmpty()) {
-                    // No face detected - user might be away
-                    callback.onEngagementDetected(Constants.ENGAGEMENT_DISTRACTED);
-                    return;
-                }
-                
-                // Analyze first face (usually the user)
-                Face face = faces.get(0);
-                String engagementState = determineEngagement(face);
-                callback.onEngagementDetected(engagementState);
-            })
-            .addOnFailureListener(e -> {
-                Log.e(TAG, "Face detection failed", e);
-                callback.onError(e.getMessage());
-            });
-    }
-    
-    /**
-     * Determine engagement state based on face analysis
+        analyzeEngagement(image, callback, null);
+    }
+    
+    /**
+     * Analyze engagement and get told when the detector is done with the frame
+     * 
+     * @param image Input image from camera
+     * @param callback Called when analysis completes
+     * @param onComplete Runs after success or failure, once ML Kit no longer
+     *                   needs the image
+     */
+    public void analyzeEngagement(InputImage image, EngagementCallback callback,
+                                  @Nullable Runnable onComplete) {
+        DetectionRequest request = obtainRequest();
+        request.callback = callback;
+        request.onComplete = onComplete;
+        request.frameShortSide = Math.min(image.getWidth(), image.getHeight());
+        request.faceScale = 1;
+        runDetection(image, request);
+    }
+    
+    /**
+     * Analyze engagement directly from a CameraX frame
+     * 
+     * Results go to the registered EngagementListener. Uses the ROI tracker
+     * when one is set, otherwise the full frame. The caller still owns the
+     * ImageProxy and should close it in releaseListener.
      * 
-     * This uses rule-based logic (not deep learning)
-     * Simple rules based on facial features
-     */
-    private String determineEngagement(Face face) {
-        // Check if eyes are closed
-        if (face.getLeftEyeOpenProbability() != null && 
-            face.getRightEyeOpenProbability() != null) {
-            
-            float leftEyeOpen = face.getLeftEyeOpenProbability();
-            float rightEyeOpen = face.getRightEyeOpenProbability();
-            
-            // If both eyes are likely closed, user is tired
-            if (leftEyeOpen < 0.3f && rightEyeOpen < 0.3f) {
-                return Constants.ENGAGEMENT_TIRED;
+     * @return false if the frame had no image (nothing was started)
+     */
+    public boolean analyzeFrame(ImageProxy imageProxy, FrameReleaseListener releaseListener) {
+        recordQueueWait(imageProxy);
+        
+        InputImage image;
+        FaceRoiTracker.RoiFrame roiFrame = null;
+        
+        FaceRoiTracker tracker = roiTracker;
+        if (tracker != null) {
+            roiFrame = tracker.prepare(imageProxy);
+            if (roiFrame == null) {
+                return false;
             }
+            image = roiFrame.image;
+        } else {
+            if (imageProxy.getImage() == null) {
+                return false;
+            }
+            image = InputImage.fromMediaImage(
+                imageProxy.getImage(),
+                imageProxy.getImageInfo().getRotationDegrees()
+            );
         }
         
-        // Check if yawning (mouth open wide)
-        if (face.getSmilingProbability() != null) {
-            float smilingProb = face.getSmilingProbability();
-            // Low smiling probability + mouth open might indicate yawning
-            // This is simplified - real yawning detection needs more analysis
+        DetectionRequest request = obtainRequest();
+        request.roiTracker = tracker;
+        request.roiFrame = roiFrame;
+        request.imageProxy = imageProxy;
+        request.releaseListener = releaseListener;
+        request.frameShortSide = Math.min(imageProxy.getWidth(), imageProxy.getHeight());
+        // Faces found in a downscaled crop are smaller by the crop step
+        request.faceScale = roiFrame != null ? roiFrame.step : 1;
+        runDetection(image, request);
+        return true;
+    }
+    
+    /**
+     * Time from camera capture until the frame reached us
+     * 
+     * CameraX timestamps usually share the elapsedRealtime time base; values
+     * that don't make sense (other time base) are ignored.
+     */
+    private void recordQueueWait(ImageProxy imageProxy) {
+        EngagementMetrics currentMetrics = metrics;
+        if (currentMetrics == null) {
+            return;
+        }
+        long waitMs = (SystemClock.elapsedRealtimeNanos()
+            - imageProxy.getImageInfo().getTimestamp()) / 1_000_000L;
+        if (waitMs >= 0 && waitMs < MAX_PLAUSIBLE_QUEUE_WAIT_MS) {
+            currentMetrics.onQueueWait(waitMs);
+        }
+    }
+    
+    private void runDetection(InputImage image, DetectionRequest request) {
+        request.startMs = clock.nowMs();
+        try {
+            detectorClient.detect(image, callbackExecutor, request);
+        } catch (RuntimeException e) {
+            // The detector never took the frame - report it and free its slot
+            request.onDetectionFailed(e);
+        }
+    }
+    
+    /**
+     * Handle a successful detection for one frame
+     */
+    private void handleFaces(DetectionRequest request, List<DetectedFace> faces) {
+        long nowMs = clock.nowMs();
+        EngagementMetrics currentMetrics = metrics;
+        if (currentMetrics != null) {
+            currentMetrics.onDetectionFinished(nowMs - request.startMs, true);
         }
         
-        // Check head pose (if available)
-        // If head is turned away, user might be distracted
+        // Pick the face to score: the primary user when tracking several
+        // faces, otherwise the first face
+        FaceTrackCache trackCache = faceTrackCache;
+        DetectedFace face;
+        EngagementStateMachine machine;
+        if (trackCache != null) {
+            face = trackCache.selectPrimary(faces, nowMs);
+            machine = trackCache.getPrimaryStateMachine();
+        } else {
+            face = faces.isEmpty() ? null : faces.get(0);
+            machine = stateMachine;
+        }
+        
+        if (request.roiTracker != null && request.roiFrame != null) {
+            request.roiTracker.onFaceDetected(request.roiFrame, face);
+        }
+        
+        FaceFeatures features = request.features;
+        if (face != null) {
+            lastFaceSeenMs = nowMs;
+            float faceSizeRatio = request.frameShortSide > 0
+                ? (float) (face.width() * request.faceScale) / request.frameShortSide
+                : Float.NaN;
+            features.setFace(face, faceSizeRatio);
+        } else {
+            // No face detected - user might be away
+            if (lastFaceSeenMs < 0) {
+                lastFaceSeenMs = nowMs;
+            }
+            features.setNoFace(nowMs - lastFaceSeenMs);
+        }
+        int engagementState = rules.evaluate(features);
+        
+        FrameRateGovernor governor = frameRateGovernor;
+        if (governor != null) {
+            governor.onFrameAnalyzed(engagementState, nowMs - request.startMs, nowMs);
+        }
+        
+        int reportedState = engagementState;
+        if (machine != null) {
+            // The machine debounces the rules' verdict - it doesn't reclassify
+            machine.onFrame(engagementState, nowMs);
+            // Compare with what was last reported rather than with the
+            // machine's own history - the primary user (and so the machine)
+            // may have just changed
+            int currentState = machine.getCurrentState();
+            reportSample(currentState);
+            if (currentState == lastReportedState) {
+                return;
+            }
+            reportedState = currentState;
+            lastReportedState = currentState;
+        } else {
+            reportSample(engagementState);
+        }
+        
+        if (reportedState == EngagementState.NONE) {
+            return;
+        }
+        if (currentMetrics != null) {
+            currentMetrics.onStateTransition(reportedState);
+        }
         
-        // Default: assume focused if face is detected and eyes are open
-        return Constants.ENGAGEMENT_FOCUSED;
+        if (request.callback != null) {
+            request.callback.onEngagementDetected(EngagementState.toLabel(reportedState));
+        } else {
+            EngagementListener listener = engagementListener;
+            if (listener != null) {
+                listener.onEngagementState(reportedState);
+            }
+        }
+    }
+    
+    private void reportSample(int engagementState) {
+        SampleListener listener = sampleListener;
+        if (listener != null) {
+            listener.onEngagementSample(engagementState);
+        }
+    }
+    
+    private void handleFailure(DetectionRequest request, @Nullable Exception e) {
+        Log.e(TAG, "Face detection failed", e);
+        EngagementMetrics currentMetrics = metrics;
+        if (currentMetrics != null) {
+            currentMetrics.onDetectionFinished(clock.nowMs() - request.startMs, false);
+        }
+        if (request.callback != null) {
+            request.callback.onError(e != null ? e.getMessage() : null);
+        } else {
+            EngagementListener listener = engagementListener;
+            if (listener != null) {
+                listener.onEngagementError(e);
+            }
+        }
+    }
+    
+    private DetectionRequest obtainRequest() {
+        synchronized (freeRequests) {
+            DetectionRequest request = freeRequests.poll();
+            return request != null ? request : new DetectionRequest();
+        }
+    }
+    
+    private void recycleRequest(DetectionRequest request) {
+        request.callback = null;
+        request.onComplete = null;
+        request.roiTracker = null;
+        request.roiFrame = null;
+        request.imageProxy = null;
+        request.releaseListener = null;
+        synchronized (freeRequests) {
+            freeRequests.push(request);
+        }
+    }
+    
+    /**
+     * State for one frame in flight
+     * 
+     * Doubles as the detector listener so no lambda has to be allocated per frame.
+     */
+    private final class DetectionRequest implements FaceDetectorClient.Listener {
+        final FaceFeatures features = new FaceFeatures();
+        long startMs;
+        int frameShortSide;
+        int faceScale;
+        @Nullable EngagementCallback callback;
+        @Nullable Runnable onComplete;
+        @Nullable FaceRoiTracker roiTracker;
+        @Nullable FaceRoiTracker.RoiFrame roiFrame;
+        @Nullable ImageProxy imageProxy;
+        @Nullable FrameReleaseListener releaseListener;
+        
+        // finish() always runs: a listener that throws must not keep the
+        // image, the ROI buffer and the pipeline's in-flight slot forever
+        
+        @Override
+        public void onFacesDetected(List<DetectedFace> faces) {
+            try {
+                handleFaces(this, faces);
+            } finally {
+                finish();
+            }
+        }
+        
+        @Override
+        public void onDetectionFailed(Exception error) {
+            try {
+                handleFailure(this, error);
+            } finally {
+                finish();
+            }
+        }
+        
+        private void finish() {
+            // The detector no longer needs the image
+            if (roiTracker != null && roiFrame != null) {
+                roiTracker.release(roiFrame);
+            }
+            if (releaseListener != null && imageProxy != null) {
+                releaseListener.onFrameReleased(imageProxy);
+            }
+            if (onComplete != null) {
+                onComplete.run();
+            }
+            recycleRequest(this);
+        }
     }
     
     /**
      * Clean up resources
      */
     public void release() {
-        if (faceDetector != null) {
-            faceDetector.close();
+        if (ownsDetector) {
+            detectorClient.close();
         }
     }
 }
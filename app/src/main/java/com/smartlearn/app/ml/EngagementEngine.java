@@ -0,0 +1,187 @@
+package com.smartlearn.app.ml;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+
+import androidx.camera.lifecycle.ProcessCameraProvider;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.smartlearn.app.database.EngagementSampleRecorder;
+import com.smartlearn.app.utils.Constants;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * EngagementEngine Class
+ *
+ * App-wide home of the engagement analysis pieces that are expensive to create.
+ *
+ * Why this class exists:
+ * - Creating an ML Kit client loads its model, which takes time
+ * - Getting the CameraX ProcessCameraProvider the first time is slow too
+ * - Doing both every time EngagementFragment is created made
+ *   "Enable camera" take seconds before the first frame was analyzed
+ *
+ * How it works:
+ * - One detector, one analyzer (with governor, ROI tracker, face track
+ *   cache and metrics), one camera executor and one camera provider
+ *   for the whole app
+ * - Fragments borrow them; they are never closed while the app runs
+ * - warmUp() loads the model and camera provider in the background
+ * - prewarm() also creates the engine itself in the background: the
+ *   constructor reads the rules asset and sets up Room, which must not
+ *   slow down app start (SmartLearnApplication calls it for users who
+ *   have used the engagement camera before)
+ *
+ * Singleton pattern, like AppDatabase.
+ */
+public class EngagementEngine {
+
+    private static final String RULES_ASSET = "engagement_rules.txt";
+
+    private static EngagementEngine instance;
+
+    private final Context appContext;
+    private final ExecutorService cameraExecutor;
+    private final MlKitFaceDetectorClient detectorClient;
+    private final EngagementAnalyzer engagementAnalyzer;
+    private final FrameRateGovernor frameRateGovernor;
+    private final FaceTrackCache faceTrackCache;
+    private final EngagementMetrics metrics;
+    private final EngagementSampleRecorder sampleRecorder;
+    private final WorkloadScheduler workloadScheduler;
+
+    private ListenableFuture<ProcessCameraProvider> cameraProviderFuture;
+
+    public static synchronized EngagementEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new EngagementEngine(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private EngagementEngine(Context appContext) {
+        this.appContext = appContext;
+
+        cameraExecutor = Executors.newSingleThreadExecutor();
+        detectorClient = new MlKitFaceDetectorClient();
+
+        // Shared detector - fragments must not close it
+        engagementAnalyzer = new EngagementAnalyzer(detectorClient, false);
+        // Handle detection results on the camera thread, post only changes
+        engagementAnalyzer.setCallbackExecutor(cameraExecutor);
+        // Rules can be tuned in assets/engagement_rules.txt
+        engagementAnalyzer.setRules(EngagementRules.fromAsset(appContext, RULES_ASSET));
+
+        // Analyze fewer frames while engagement is steady
+        frameRateGovernor = new FrameRateGovernor();
+        engagementAnalyzer.setFrameRateGovernor(frameRateGovernor);
+
+        // Detect on a small crop around the face between full-frame checks
+        FaceRoiTracker roiTracker = new FaceRoiTracker();
+        // Luma-only copies into pooled buffers - no per-frame allocations
+        roiTracker.setGrayscale(true);
+        engagementAnalyzer.setRoiTracker(roiTracker);
+
+        // Only report real state changes, not every frame - with one state
+        // machine per user, so someone walking past doesn't reset the smoothing
+        faceTrackCache = new FaceTrackCache();
+        engagementAnalyzer.setFaceTrackCache(faceTrackCache);
+
+        // Counters and latencies for the debug screen
+        metrics = new EngagementMetrics();
+        metrics.setStartedAtMs(SystemClock.elapsedRealtime());
+        engagementAnalyzer.setMetrics(metrics);
+
+        // Engagement timeline, written to Room in batches
+        sampleRecorder = EngagementSampleRecorder.getInstance(appContext);
+        engagementAnalyzer.setSampleListener(sampleRecorder);
+
+        // Back off when the phone is hot, low on battery or saving power
+        workloadScheduler = new WorkloadScheduler(
+            new AndroidDeviceSignals(appContext), engagementAnalyzer, frameRateGovernor, roiTracker
+        );
+    }
+
+    /**
+     * Create the engine and warm it up, all off the calling thread
+     * (for app start - nothing here touches the disk on the main thread)
+     */
+    public static void prewarm(Context context) {
+        Context appContext = context.getApplicationContext();
+        // One short-lived thread at startup; getInstance() is synchronized,
+        // so a screen asking for the engine meanwhile just waits for it
+        new Thread(() -> getInstance(appContext).warmUp(), "EngagementPrewarm").start();
+    }
+
+    /**
+     * Load the face detection model and camera provider in the background
+     */
+    public void warmUp() {
+        cameraExecutor.execute(() -> {
+            getCameraProviderFuture();
+            detectorClient.warmUp();
+        });
+    }
+
+    /**
+     * Camera provider, requested only once
+     */
+    public synchronized ListenableFuture<ProcessCameraProvider> getCameraProviderFuture() {
+        if (cameraProviderFuture == null) {
+            cameraProviderFuture = ProcessCameraProvider.getInstance(appContext);
+        }
+        return cameraProviderFuture;
+    }
+
+    /**
+     * Clear per-session state before the camera is turned on again
+     */
+    public void resetSession() {
+        engagementAnalyzer.reset();
+    }
+
+    public EngagementAnalyzer getEngagementAnalyzer() {
+        return engagementAnalyzer;
+    }
+
+    public ExecutorService getCameraExecutor() {
+        return cameraExecutor;
+    }
+
+    public FrameRateGovernor getFrameRateGovernor() {
+        return frameRateGovernor;
+    }
+
+    public EngagementMetrics getMetrics() {
+        return metrics;
+    }
+
+    public EngagementSampleRecorder getSampleRecorder() {
+        return sampleRecorder;
+    }
+
+    public WorkloadScheduler getWorkloadScheduler() {
+        return workloadScheduler;
+    }
+
+    /**
+     * Should the engine be warmed up at app start?
+     * True once the user has turned on the engagement camera.
+     */
+    public static boolean isPrewarmEnabled(Context context) {
+        return getPreferences(context).getBoolean(Constants.PREF_ENGAGEMENT_PREWARM, false);
+    }
+
+    public static void setPrewarmEnabled(Context context, boolean enabled) {
+        getPreferences(context).edit()
+            .putBoolean(Constants.PREF_ENGAGEMENT_PREWARM, enabled)
+            .apply();
+    }
+
+    private static SharedPreferences getPreferences(Context context) {
+        return context.getSharedPreferences(Constants.PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
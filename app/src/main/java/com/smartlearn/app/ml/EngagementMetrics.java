@@ -0,0 +1,278 @@
+package com.smartlearn.app.ml;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * EngagementMetrics Class
+ *
+ * Counters and latency histograms for the engagement pipeline.
+ *
+ * Why this class exists:
+ * - We can't tune the camera path (frame rate, ROI, detector tier)
+ *   without knowing how it behaves on real devices
+ * - Logging every frame is too slow and too noisy
+ *
+ * What is measured:
+ * - Frames received from CameraX, dropped (pipeline full), skipped
+ *   (frame-rate governor) and analyzed
+ * - Detector latency: detect() call until the result is handled
+ * - Queue wait: camera capture until the frame reaches the analyzer
+ * - Dispatch lag: state posted to the main thread until the UI applies it
+ * - State transitions, per target state
+ *
+ * Recording is lock-free (atomic counters, fixed histogram buckets)
+ * so it is cheap enough for every frame.
+ */
+public class EngagementMetrics {
+
+    /**
+     * Latency histogram with fixed millisecond buckets
+     *
+     * Percentiles are approximate: they report the upper bound of the
+     * bucket the percentile falls in.
+     */
+    public static class LatencyHistogram {
+
+        // Upper bounds (inclusive) of each bucket in ms; one extra overflow bucket
+        private static final long[] BUCKET_LIMITS_MS = {
+            1, 2, 4, 8, 12, 16, 24, 33, 50, 66, 100, 150, 200, 300, 500, 1000, 2000, 5000
+        };
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKET_LIMITS_MS.length + 1);
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong sumMs = new AtomicLong();
+        private final AtomicLong maxMs = new AtomicLong();
+
+        public void record(long latencyMs) {
+            if (latencyMs < 0) {
+                return;
+            }
+            counts.incrementAndGet(bucketFor(latencyMs));
+            total.incrementAndGet();
+            sumMs.addAndGet(latencyMs);
+
+            long max = maxMs.get();
+            while (latencyMs > max && !maxMs.compareAndSet(max, latencyMs)) {
+                max = maxMs.get();
+            }
+        }
+
+        public long getCount() {
+            return total.get();
+        }
+
+        public long getMaxMs() {
+            return maxMs.get();
+        }
+
+        public float getMeanMs() {
+            long count = total.get();
+            return count == 0 ? 0f : (float) sumMs.get() / count;
+        }
+
+        /**
+         * @param percentile 0-100 (e.g. 95 for p95)
+         * @return Upper bound of the bucket holding the percentile, 0 if empty
+         */
+        public long getPercentileMs(float percentile) {
+            long count = total.get();
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(count * percentile / 100f);
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return i < BUCKET_LIMITS_MS.length ? BUCKET_LIMITS_MS[i] : maxMs.get();
+                }
+            }
+            return maxMs.get();
+        }
+
+        public void reset() {
+            for (int i = 0; i < counts.length(); i++) {
+                counts.set(i, 0);
+            }
+            total.set(0);
+            sumMs.set(0);
+            maxMs.set(0);
+        }
+
+        private static int bucketFor(long latencyMs) {
+            for (int i = 0; i < BUCKET_LIMITS_MS.length; i++) {
+                if (latencyMs <= BUCKET_LIMITS_MS[i]) {
+                    return i;
+                }
+            }
+            return BUCKET_LIMITS_MS.length;
+        }
+
+        String format() {
+            return String.format(Locale.US,
+                "n=%d mean=%.1f p50=%d p95=%d p99=%d max=%d ms",
+                getCount(), getMeanMs(), getPercentileMs(50), getPercentileMs(95),
+                getPercentileMs(99), getMaxMs());
+        }
+    }
+
+    private final AtomicLong framesReceived = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong framesSkipped = new AtomicLong();
+    private final AtomicLong framesAnalyzed = new AtomicLong();
+    private final AtomicLong detectionErrors = new AtomicLong();
+    private final AtomicLong stateTransitions = new AtomicLong();
+    private final AtomicLongArray transitionsToState = new AtomicLongArray(EngagementState.COUNT);
+
+    private final LatencyHistogram detectorLatency = new LatencyHistogram();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram dispatchLag = new LatencyHistogram();
+
+    private volatile long startedAtMs;
+
+    public void onFrameReceived() {
+        framesReceived.incrementAndGet();
+    }
+
+    public void onFrameDropped() {
+        framesDropped.incrementAndGet();
+    }
+
+    public void onFrameSkipped() {
+        framesSkipped.incrementAndGet();
+    }
+
+    public void onFrameAnalyzed() {
+        framesAnalyzed.incrementAndGet();
+    }
+
+    public void onDetectionFinished(long latencyMs, boolean success) {
+        detectorLatency.record(latencyMs);
+        if (!success) {
+            detectionErrors.incrementAndGet();
+        }
+    }
+
+    public void onQueueWait(long waitMs) {
+        queueWait.record(waitMs);
+    }
+
+    public void onDispatchLag(long lagMs) {
+        dispatchLag.record(lagMs);
+    }
+
+    public void onStateTransition(int toState) {
+        stateTransitions.incrementAndGet();
+        if (toState >= 0 && toState < EngagementState.COUNT) {
+            transitionsToState.incrementAndGet(toState);
+        }
+    }
+
+    public long getFramesReceived() {
+        return framesReceived.get();
+    }
+
+    public long getFramesDropped() {
+        return framesDropped.get();
+    }
+
+    public long getFramesSkipped() {
+        return framesSkipped.get();
+    }
+
+    public long getFramesAnalyzed() {
+        return framesAnalyzed.get();
+    }
+
+    public long getDetectionErrors() {
+        return detectionErrors.get();
+    }
+
+    public long getStateTransitions() {
+        return stateTransitions.get();
+    }
+
+    public LatencyHistogram getDetectorLatency() {
+        return detectorLatency;
+    }
+
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    public LatencyHistogram getDispatchLag() {
+        return dispatchLag;
+    }
+
+    /**
+     * Remember when this measuring period started (shown in the report)
+     */
+    public void setStartedAtMs(long startedAtMs) {
+        this.startedAtMs = startedAtMs;
+    }
+
+    /**
+     * Start a new measuring period
+     */
+    public void reset(long nowMs) {
+        framesReceived.set(0);
+        framesDropped.set(0);
+        framesSkipped.set(0);
+        framesAnalyzed.set(0);
+        detectionErrors.set(0);
+        stateTransitions.set(0);
+        for (int i = 0; i < transitionsToState.length(); i++) {
+            transitionsToState.set(i, 0);
+        }
+        detectorLatency.reset();
+        queueWait.reset();
+        dispatchLag.reset();
+        startedAtMs = nowMs;
+    }
+
+    /**
+     * Human-readable report (debug screen and dump file)
+     *
+     * @param nowMs Current time on the same clock as setStartedAtMs
+     */
+    public String formatReport(long nowMs) {
+        StringBuilder report = new StringBuilder();
+        long elapsedMs = Math.max(0, nowMs - startedAtMs);
+        report.append(String.format(Locale.US, "Period: %.1f s%n", elapsedMs / 1000f));
+        report.append("Frames received: ").append(getFramesReceived()).append('\n');
+        report.append("Frames dropped: ").append(getFramesDropped()).append('\n');
+        report.append("Frames skipped: ").append(getFramesSkipped()).append('\n');
+        report.append("Frames analyzed: ").append(getFramesAnalyzed()).append('\n');
+        report.append("Detection errors: ").append(getDetectionErrors()).append('\n');
+        if (elapsedMs > 0) {
+            report.append(String.format(Locale.US, "Analyzed rate: %.2f fps%n",
+                getFramesAnalyzed() * 1000f / elapsedMs));
+        }
+        report.append('\n');
+        report.append("Detector latency: ").append(detectorLatency.format()).append('\n');
+        report.append("Queue wait: ").append(queueWait.format()).append('\n');
+        report.append("Main-thread dispatch lag: ").append(dispatchLag.format()).append('\n');
+        report.append('\n');
+        report.append("State transitions: ").append(getStateTransitions()).append('\n');
+        for (int state = 0; state < EngagementState.COUNT; state++) {
+            report.append("  to ").append(EngagementState.toLabel(state)).append(": ")
+                .append(transitionsToState.get(state)).append('\n');
+        }
+        return report.toString();
+    }
+
+    /**
+     * Write the current report to a text file
+     */
+    public void dumpToFile(File file, long nowMs) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(formatReport(nowMs));
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.smartlearn.app.ml;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EngagementRules Class
+ *
+ * Compiled threshold rules that turn FaceFeatures into an engagement state.
+ *
+ * Why this class exists:
+ * - Thresholds used to be hard-coded in EngagementAnalyzer
+ * - Rules are now plain text, so they can be tuned (e.g. in
+ *   assets/engagement_rules.txt) without changing code
+ * - The text is compiled once into flat arrays; evaluating a frame is an
+ *   array walk with no allocation and almost no branching
+ *
+ * Rule spec format (one rule per line, # starts a comment):
+ *   STATE: feature op value [&& feature op value ...]
+ *   default: STATE
+ *
+ * - STATE is FOCUSED, TIRED or DISTRACTED
+ * - feature is a FaceFeatures name (leftEyeOpen, headEulerY, absenceMs, ...)
+ * - op is one of <  <=  >  >=  and |<|  |>| (compare the absolute value)
+ * - Rules are checked top to bottom; the first one whose conditions all
+ *   hold wins. If none match, the default state is used.
+ */
+public final class EngagementRules {
+
+    private static final String TAG = "EngagementRules";
+
+    /**
+     * Built-in rules (same behavior as the original hard-coded checks)
+     */
+    public static final String DEFAULT_SPEC =
+        "# No face in view - user might be away\n"
+        + "DISTRACTED: facePresent < 0.5\n"
+        + "# Both eyes likely closed\n"
+        + "TIRED: leftEyeOpen < 0.3 && rightEyeOpen < 0.3\n"
+        + "default: FOCUSED\n";
+
+    // One entry per condition: value (or |value|) must be in [low, high)
+    private final int[] conditionFeature;
+    private final boolean[] conditionAbsolute;
+    private final float[] conditionLow;
+    private final float[] conditionHigh;
+
+    // One entry per rule: its conditions are [ruleStart, ruleEnd)
+    private final int[] ruleStart;
+    private final int[] ruleEnd;
+    private final int[] ruleState;
+
+    private final int defaultState;
+
+    // Bit (1 << featureId) set for every feature some rule reads
+    private final int usedFeatureMask;
+
+    private EngagementRules(int[] conditionFeature, boolean[] conditionAbsolute,
+                            float[] conditionLow, float[] conditionHigh,
+                            int[] ruleStart, int[] ruleEnd, int[] ruleState,
+                            int defaultState) {
+        this.conditionFeature = conditionFeature;
+        this.conditionAbsolute = conditionAbsolute;
+        this.conditionLow = conditionLow;
+        this.conditionHigh = conditionHigh;
+        this.ruleStart = ruleStart;
+        this.ruleEnd = ruleEnd;
+        this.ruleState = ruleState;
+        this.defaultState = defaultState;
+
+        int mask = 0;
+        for (int feature : conditionFeature) {
+            mask |= 1 << feature;
+        }
+        this.usedFeatureMask = mask;
+    }
+
+    /**
+     * Evaluate the rules for one frame
+     *
+     * @return EngagementState code
+     */
+    public int evaluate(FaceFeatures features) {
+        float[] values = features.values;
+        for (int rule = 0; rule < ruleState.length; rule++) {
+            boolean matches = true;
+            for (int c = ruleStart[rule]; c < ruleEnd[rule]; c++) {
+                float value = values[conditionFeature[c]];
+                if (conditionAbsolute[c]) {
+                    value = Math.abs(value);
+                }
+                // Non-short-circuit & keeps the loop free of extra branches;
+                // NaN fails both comparisons
+                matches &= (value >= conditionLow[c]) & (value < conditionHigh[c]);
+            }
+            if (matches) {
+                return ruleState[rule];
+            }
+        }
+        return defaultState;
+    }
+
+    /**
+     * Does any rule read this feature?
+     */
+    public boolean usesFeature(int feature) {
+        return (usedFeatureMask & (1 << feature)) != 0;
+    }
+
+    public int getUsedFeatureMask() {
+        return usedFeatureMask;
+    }
+
+    public static EngagementRules defaults() {
+        return compile(DEFAULT_SPEC);
+    }
+
+    /**
+     * Load rules from an asset file, falling back to the defaults
+     * if the file is missing or invalid
+     */
+    public static EngagementRules fromAsset(Context context, String assetName) {
+        StringBuilder spec = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(context.getAssets().open(assetName), "UTF-8"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                spec.append(line).append('\n');
+            }
+            return compile(spec.toString());
+        } catch (IOException | IllegalArgumentException e) {
+            Log.w(TAG, "Using default rules: " + e.getMessage());
+            return defaults();
+        }
+    }
+
+    /**
+     * Compile a rule spec
+     *
+     * @throws IllegalArgumentException if the spec is invalid (message has the line number)
+     */
+    public static EngagementRules compile(String spec) {
+        List<Integer> features = new ArrayList<>();
+        List<Boolean> absolutes = new ArrayList<>();
+        List<Float> lows = new ArrayList<>();
+        List<Float> highs = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        List<Integer> states = new ArrayList<>();
+        int defaultState = EngagementState.FOCUSED;
+
+        String[] lines = spec.split("\n");
+        for (int lineIndex = 0; lineIndex < lines.length; lineIndex++) {
+            String line = lines[lineIndex];
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                throw error(lineIndex, "expected 'STATE: conditions'");
+            }
+            String head = line.substring(0, colon).trim();
+            String body = line.substring(colon + 1).trim();
+
+            if (head.equals("default")) {
+                defaultState = parseState(body, lineIndex);
+                continue;
+            }
+
+            starts.add(features.size());
+            for (String condition : body.split("&&")) {
+                String[] parts = condition.trim().split("\\s+");
+                if (parts.length != 3) {
+                    throw error(lineIndex, "expected 'feature op value' in '" + condition.trim() + "'");
+                }
+
+                int feature = FaceFeatures.featureId(parts[0]);
+                if (feature < 0) {
+                    throw error(lineIndex, "unknown feature '" + parts[0] + "'");
+                }
+
+                float value;
+                try {
+                    value = Float.parseFloat(parts[2]);
+                } catch (NumberFormatException e) {
+                    throw error(lineIndex, "bad number '" + parts[2] + "'");
+                }
+
+                // Turn every operator into "low <= value < high"
+                String op = parts[1];
+                boolean absolute = op.startsWith("|");
+                if (absolute) {
+                    op = op.replace("|", "");
+                }
+                float low;
+                float high;
+                switch (op) {
+                    case "<":
+                        low = Float.NEGATIVE_INFINITY;
+                        high = value;
+                        break;
+                    case "<=":
+                        low = Float.NEGATIVE_INFINITY;
+                        high = Math.nextUp(value);
+                        break;
+                    case ">":
+                        low = Math.nextUp(value);
+                        high = Float.POSITIVE_INFINITY;
+                        break;
+                    case ">=":
+                        low = value;
+                        high = Float.POSITIVE_INFINITY;
+                        break;
+                    default:
+                        throw error(lineIndex, "unknown operator '" + parts[1] + "'");
+                }
+
+                features.add(feature);
+                absolutes.add(absolute);
+                lows.add(low);
+                highs.add(high);
+            }
+            ends.add(features.size());
+            states.add(parseState(head, lineIndex));
+        }
+
+        int conditionCount = features.size();
+        int[] conditionFeature = new int[conditionCount];
+        boolean[] conditionAbsolute = new boolean[conditionCount];
+        float[] conditionLow = new float[conditionCount];
+        float[] conditionHigh = new float[conditionCount];
+        for (int i = 0; i < conditionCount; i++) {
+            conditionFeature[i] = features.get(i);
+            conditionAbsolute[i] = absolutes.get(i);
+            conditionLow[i] = lows.get(i);
+            conditionHigh[i] = highs.get(i);
+        }
+
+        int ruleCount = states.size();
+        int[] ruleStart = new int[ruleCount];
+        int[] ruleEnd = new int[ruleCount];
+        int[] ruleState = new int[ruleCount];
+        for (int i = 0; i < ruleCount; i++) {
+            ruleStart[i] = starts.get(i);
+            ruleEnd[i] = ends.get(i);
+            ruleState[i] = states.get(i);
+        }
+
+        return new EngagementRules(conditionFeature, conditionAbsolute, conditionLow, conditionHigh,
+            ruleStart, ruleEnd, ruleState, defaultState);
+    }
+
+    private static int parseState(String name, int lineIndex) {
+        int state = EngagementState.fromLabel(name.trim());
+        if (state == EngagementState.NONE) {
+            throw error(lineIndex, "unknown state '" + name.trim() + "'");
+        }
+        return state;
+    }
+
+    private static IllegalArgumentException error(int lineIndex, String message) {
+        return new IllegalArgumentException("Rule line " + (lineIndex + 1) + ": " + message);
+    }
+}
@@ -0,0 +1,56 @@
+package com.smartlearn.app.ml;
+
+import com.smartlearn.app.utils.Constants;
+
+/**
+ * EngagementState Class
+ *
+ * Primitive (int) codes for engagement states.
+ *
+ * Why int codes?
+ * - The camera path runs many times per second for a whole study session
+ * - Comparing and storing ints allocates nothing, and ints can index
+ *   preallocated arrays (e.g. UI text per state)
+ * - The String constants in Constants.ENGAGEMENT_* are still used for
+ *   display and for the older callback API (see toLabel)
+ */
+public final class EngagementState {
+
+    public static final int FOCUSED = 0;
+    public static final int TIRED = 1;
+    public static final int DISTRACTED = 2;
+
+    // Number of states - size for arrays indexed by state
+    public static final int COUNT = 3;
+
+    // Used where "no state yet" or "no change" must be expressed
+    public static final int NONE = -1;
+
+    private static final String[] LABELS = {
+        Constants.ENGAGEMENT_FOCUSED,
+        Constants.ENGAGEMENT_TIRED,
+        Constants.ENGAGEMENT_DISTRACTED
+    };
+
+    private EngagementState() {
+    }
+
+    /**
+     * String label for a state code (one of Constants.ENGAGEMENT_*)
+     */
+    public static String toLabel(int state) {
+        return LABELS[state];
+    }
+
+    /**
+     * State code for a label, or NONE if the label is unknown
+     */
+    public static int fromLabel(String label) {
+        for (int i = 0; i < LABELS.length; i++) {
+            if (LABELS[i].equals(label)) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+}
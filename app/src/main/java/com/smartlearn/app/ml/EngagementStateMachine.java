@@ -0,0 +1,147 @@
+package com.smartlearn.app.ml;
+
+import java.util.Arrays;
+
+/**
+ * EngagementStateMachine Class
+ *
+ * Turns the noisy per-frame state from EngagementRules into a stable
+ * engagement state.
+ *
+ * Why this class exists:
+ * - A single blink or a glance away makes one frame look TIRED or DISTRACTED
+ * - Reacting to every frame means flickering labels, a Toast storm
+ *   and constant work on the main thread
+ *
+ * The rules (assets/engagement_rules.txt) decide what each frame looks
+ * like; this class only decides when to believe them. It never looks at
+ * face features itself, so every rule - eyes, smile, head pose, face size,
+ * absence time - changes what the user sees.
+ *
+ * How it works:
+ * 1. Smoothing: each state's share of recent frames is averaged over time
+ *    (exponential smoothing, works at any frame rate)
+ * 2. Hysteresis: another state takes over only once it holds ENTER_SHARE
+ *    of the recent frames; otherwise the current state is kept
+ * 3. Dwell time: a new state must hold for minDwellMs before it is reported
+ *
+ * onFrame() returns a state (EngagementState code) only when it actually
+ * changes, otherwise EngagementState.NONE. The very first frame always
+ * reports a state so the UI has something to show.
+ */
+public class EngagementStateMachine {
+
+    public static final long DEFAULT_SMOOTHING_MS = 800;
+    public static final long DEFAULT_MIN_DWELL_MS = 2000;
+
+    // Smoothed share of frames a new state needs to replace the current one
+    private static final float ENTER_SHARE = 0.6f;
+
+    private final long smoothingMs;
+    private final long minDwellMs;
+
+    // Smoothed share of recent frames per state (they add up to 1)
+    private final float[] shares = new float[EngagementState.COUNT];
+    private long lastFrameMs = -1;
+
+    private int currentState = EngagementState.NONE;
+    private int candidateState = EngagementState.NONE;
+    private long candidateSinceMs;
+
+    public EngagementStateMachine() {
+        this(DEFAULT_SMOOTHING_MS, DEFAULT_MIN_DWELL_MS);
+    }
+
+    /**
+     * @param smoothingMs Time constant of the exponential smoothing
+     * @param minDwellMs How long a new state must hold before it is reported
+     */
+    public EngagementStateMachine(long smoothingMs, long minDwellMs) {
+        this.smoothingMs = smoothingMs;
+        this.minDwellMs = minDwellMs;
+    }
+
+    /**
+     * Feed one analyzed frame
+     *
+     * @param frameState State the rules gave this frame (EngagementState code)
+     * @param timestampMs Frame time
+     * @return The new state if it changed, otherwise EngagementState.NONE
+     */
+    public synchronized int onFrame(int frameState, long timestampMs) {
+        if (frameState < 0 || frameState >= EngagementState.COUNT) {
+            return EngagementState.NONE;
+        }
+
+        float alpha = 1f;
+        if (lastFrameMs >= 0) {
+            long dt = Math.max(0, timestampMs - lastFrameMs);
+            alpha = (float) (1 - Math.exp(-(double) dt / smoothingMs));
+        }
+        lastFrameMs = timestampMs;
+
+        for (int state = 0; state < EngagementState.COUNT; state++) {
+            float target = state == frameState ? 1f : 0f;
+            shares[state] += alpha * (target - shares[state]);
+        }
+
+        int target = classify();
+        if (currentState == EngagementState.NONE) {
+            // First frame - report right away
+            currentState = target;
+            candidateState = target;
+            candidateSinceMs = timestampMs;
+            return currentState;
+        }
+
+        if (target != candidateState) {
+            candidateState = target;
+            candidateSinceMs = timestampMs;
+        }
+
+        if (candidateState != currentState
+                && timestampMs - candidateSinceMs >= minDwellMs) {
+            currentState = candidateState;
+            return currentState;
+        }
+        return EngagementState.NONE;
+    }
+
+    /**
+     * Pick the state with the largest share, with hysteresis
+     * around the current state
+     */
+    private int classify() {
+        int best = 0;
+        for (int state = 1; state < EngagementState.COUNT; state++) {
+            if (shares[state] > shares[best]) {
+                best = state;
+            }
+        }
+
+        if (currentState != EngagementState.NONE && best != currentState
+                && shares[best] < ENTER_SHARE) {
+            // Not clearly different yet - stay
+            return currentState;
+        }
+        return best;
+    }
+
+    /**
+     * Current state, or EngagementState.NONE before the first frame
+     */
+    public synchronized int getCurrentState() {
+        return currentState;
+    }
+
+    /**
+     * Start over (e.g. when the camera is turned back on)
+     */
+    public synchronized void reset() {
+        Arrays.fill(shares, 0f);
+        lastFrameMs = -1;
+        currentState = EngagementState.NONE;
+        candidateState = EngagementState.NONE;
+        candidateSinceMs = 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.smartlearn.app.ml;
+
+import com.google.mlkit.vision.common.InputImage;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * FaceDetectorClient Interface
+ *
+ * The face detector used by EngagementAnalyzer.
+ *
+ * Why an interface?
+ * - The app uses ML Kit (MlKitFaceDetectorClient)
+ * - Tests and the replay harness plug in a deterministic stand-in
+ *   so the pipeline can be measured without a phone and a face
+ */
+public interface FaceDetectorClient {
+
+    /**
+     * Receives the result of one detect() call
+     *
+     * The face list and its DetectedFace objects are reused by the client:
+     * they are only valid during the callback.
+     */
+    interface Listener {
+        void onFacesDetected(List<DetectedFace> faces);
+        void onDetectionFailed(Exception error);
+    }
+
+    /**
+     * Detect faces in an image
+     *
+     * Exactly one listener method is called, on the given executor,
+     * once the client no longer needs the image.
+     */
+    void detect(InputImage image, Executor executor, Listener listener);
+
+    /**
+     * Choose how much the detector computes (a DetectorTier value)
+     *
+     * Clients with a single configuration may ignore this.
+     * Detections already running finish with the old configuration.
+     */
+    void setTier(int tier);
+
+    /**
+     * Release detector resources
+     */
+    void close();
+}
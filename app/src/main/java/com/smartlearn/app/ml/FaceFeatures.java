@@ -0,0 +1,100 @@
+package com.smartlearn.app.ml;
+
+/**
+ * FaceFeatures Class
+ *
+ * The per-frame values engagement rules are evaluated on.
+ *
+ * Why this class exists:
+ * - Rules should not depend on ML Kit types
+ * - Values live in a flat float array indexed by feature id, so the
+ *   compiled rule evaluator (EngagementRules) is a simple array walk
+ * - One instance is reused per frame in flight (no allocation)
+ *
+ * Missing values are NaN. Every comparison with NaN is false, so a rule
+ * that reads a missing value simply does not match.
+ */
+public final class FaceFeatures {
+
+    // Feature ids
+    public static final int FACE_PRESENT = 0;     // 1 if a face was found, else 0
+    public static final int LEFT_EYE_OPEN = 1;    // probability 0..1
+    public static final int RIGHT_EYE_OPEN = 2;   // probability 0..1
+    public static final int SMILING = 3;          // probability 0..1
+    public static final int HEAD_EULER_Y = 4;     // degrees, left/right turn
+    public static final int HEAD_EULER_Z = 5;     // degrees, tilt
+    public static final int FACE_SIZE_RATIO = 6;  // face width / shorter frame side
+    public static final int ABSENCE_MS = 7;       // time since a face was last seen
+    public static final int MOUTH_OPEN = 8;       // nose-to-mouth distance / face height (landmarks)
+
+    public static final int COUNT = 9;
+
+    // Names used in rule specs, indexed by feature id
+    private static final String[] NAMES = {
+        "facePresent",
+        "leftEyeOpen",
+        "rightEyeOpen",
+        "smiling",
+        "headEulerY",
+        "headEulerZ",
+        "faceSizeRatio",
+        "absenceMs",
+        "mouthOpen"
+    };
+
+    final float[] values = new float[COUNT];
+
+    public float get(int feature) {
+        return values[feature];
+    }
+
+    /**
+     * Fill from a detected face
+     *
+     * @param faceSizeRatio Face width relative to the shorter frame side
+     */
+    public void setFace(DetectedFace face, float faceSizeRatio) {
+        values[FACE_PRESENT] = 1f;
+        values[LEFT_EYE_OPEN] = face.leftEyeOpenProbability;
+        values[RIGHT_EYE_OPEN] = face.rightEyeOpenProbability;
+        values[SMILING] = face.smilingProbability;
+        values[HEAD_EULER_Y] = face.headEulerAngleY;
+        values[HEAD_EULER_Z] = face.headEulerAngleZ;
+        values[FACE_SIZE_RATIO] = faceSizeRatio;
+        values[ABSENCE_MS] = 0f;
+        values[MOUTH_OPEN] = face.mouthOpenRatio;
+    }
+
+    /**
+     * Fill for a frame without a face
+     *
+     * @param absenceMs How long no face has been seen
+     */
+    public void setNoFace(long absenceMs) {
+        values[FACE_PRESENT] = 0f;
+        values[LEFT_EYE_OPEN] = Float.NaN;
+        values[RIGHT_EYE_OPEN] = Float.NaN;
+        values[SMILING] = Float.NaN;
+        values[HEAD_EULER_Y] = Float.NaN;
+        values[HEAD_EULER_Z] = Float.NaN;
+        values[FACE_SIZE_RATIO] = Float.NaN;
+        values[ABSENCE_MS] = absenceMs;
+        values[MOUTH_OPEN] = Float.NaN;
+    }
+
+    /**
+     * Feature id for a rule-spec name, or -1 if unknown
+     */
+    public static int featureId(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static String featureName(int feature) {
+        return NAMES[feature];
+    }
+}
@@ -0,0 +1,426 @@
+package com.smartlearn.app.ml;
+
+import android.graphics.Rect;
+import android.media.Image;
+
+import androidx.annotation.Nullable;
+import androidx.camera.core.ImageProxy;
+
+import com.google.mlkit.vision.common.InputImage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * FaceRoiTracker Class
+ *
+ * Runs face detection on a small region around the last known face
+ * instead of the whole camera frame.
+ *
+ * Why this class exists:
+ * - The user's face usually stays in roughly the same place
+ * - Detecting on a 640x480 (or larger) frame every time costs far more
+ *   than detecting on a small crop around the face
+ *
+ * How it works:
+ * - After a detection we remember the face bounding box (plus a margin)
+ * - The next frames are cropped to that region and downscaled so the
+ *   longest side is at most targetSize pixels
+ * - When the face is lost, or every fullFrameInterval frames, we go back to
+ *   a full-frame detection so we can find the face again
+ *
+ * Grayscale mode (setGrayscale):
+ * - Only the luma (Y) plane is copied, into pooled direct buffers
+ *   (see LumaBufferPool) - no color planes, no per-frame arrays
+ * - Full frames are copied too (downscaled to fullFrameTargetSize)
+ *   instead of handing the camera image to ML Kit
+ *
+ * Coordinates:
+ * - ML Kit reports boxes in upright (rotated) image coordinates
+ * - We keep the tracked box in sensor (unrotated) coordinates because that
+ *   is how the camera planes are laid out
+ */
+public class FaceRoiTracker {
+
+    public static final float DEFAULT_MARGIN = 0.4f;
+    public static final int DEFAULT_FULL_FRAME_INTERVAL = 30;
+    public static final int DEFAULT_TARGET_SIZE = 240;
+    public static final int DEFAULT_FULL_FRAME_TARGET_SIZE = 640;
+    public static final int NO_SIZE_LIMIT = 0;
+
+    // Smaller crops are not worth it - ML Kit needs some pixels to work with
+    private static final int MIN_ROI_SIZE = 32;
+
+    private final float margin;
+    private final int fullFrameInterval;
+    private final int targetSize;
+    private final int fullFrameTargetSize;
+    // Temporary cap on the crop size (e.g. when the phone is hot)
+    private volatile int targetSizeLimit = NO_SIZE_LIMIT;
+
+    // Luma-only copies into pooled direct buffers
+    private volatile boolean grayscale;
+    private final LumaBufferPool lumaPool = new LumaBufferPool();
+    // One row of luma, for bulk copies when no downscaling is needed
+    private byte[] rowScratch = new byte[0];
+
+    // Last face box in full-frame sensor coordinates (valid when hasFace)
+    private final Rect lastFaceRect = new Rect();
+    private boolean hasFace;
+    private int framesSinceFullFrame;
+
+    // Scratch rects reused on every frame
+    private final Rect cropRect = new Rect();
+    private final Rect uprightRect = new Rect();
+    private final Rect sensorRect = new Rect();
+
+    // Frames (and their crop buffers) are reused; one per frame in flight
+    private final ArrayDeque<RoiFrame> freeFrames = new ArrayDeque<>();
+
+    /**
+     * One prepared frame: the image to detect on and how to map
+     * results back to full-frame coordinates
+     */
+    public static class RoiFrame {
+        public InputImage image;
+        public boolean isFullFrame;
+        int offsetX;
+        int offsetY;
+        int step;
+        int width;  // sensor width of the image passed to ML Kit
+        int height; // sensor height of the image passed to ML Kit
+        int rotation;
+        byte[] buffer = new byte[0];
+        ByteBuffer lumaBuffer; // from the pool in grayscale mode, else null
+
+        /**
+         * Where the image passed to ML Kit starts in the full frame
+         */
+        public int getOffsetX() {
+            return offsetX;
+        }
+
+        public int getOffsetY() {
+            return offsetY;
+        }
+
+        /**
+         * Downscale step (1 = full resolution)
+         */
+        public int getStep() {
+            return step;
+        }
+    }
+
+    public FaceRoiTracker() {
+        this(DEFAULT_MARGIN, DEFAULT_FULL_FRAME_INTERVAL, DEFAULT_TARGET_SIZE);
+    }
+
+    /**
+     * @param margin Extra space around the face, as a fraction of the face size
+     * @param fullFrameInterval Run a full-frame detection at least every K frames
+     * @param targetSize Longest side of the cropped image after downscaling
+     */
+    public FaceRoiTracker(float margin, int fullFrameInterval, int targetSize) {
+        this(margin, fullFrameInterval, targetSize, DEFAULT_FULL_FRAME_TARGET_SIZE);
+    }
+
+    /**
+     * @param fullFrameTargetSize Longest side of full frames in grayscale mode
+     */
+    public FaceRoiTracker(float margin, int fullFrameInterval, int targetSize,
+                          int fullFrameTargetSize) {
+        this.margin = margin;
+        this.fullFrameInterval = fullFrameInterval;
+        this.targetSize = targetSize;
+        this.fullFrameTargetSize = fullFrameTargetSize;
+    }
+
+    /**
+     * Cap the crop size below targetSize (NO_SIZE_LIMIT to remove the cap)
+     */
+    public void setTargetSizeLimit(int targetSizeLimit) {
+        this.targetSizeLimit = targetSizeLimit;
+    }
+
+    /**
+     * Copy only the luma plane into pooled buffers (grayscale detection)
+     * instead of color crops and camera images
+     */
+    public void setGrayscale(boolean grayscale) {
+        this.grayscale = grayscale;
+    }
+
+    /**
+     * Build the image to detect on for this camera frame
+     *
+     * The returned frame must be handed back with release() once
+     * ML Kit is done with it.
+     *
+     * @return null if the frame has no image
+     */
+    @Nullable
+    public synchronized RoiFrame prepare(ImageProxy imageProxy) {
+        // Grayscale mode only reads the Y plane, so it needs no media Image
+        boolean lumaOnly = grayscale;
+        Image mediaImage = imageProxy.getImage();
+        if (mediaImage == null && !lumaOnly) {
+            return null;
+        }
+
+        int frameWidth = imageProxy.getWidth();
+        int frameHeight = imageProxy.getHeight();
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+
+        RoiFrame frame = freeFrames.isEmpty() ? new RoiFrame() : freeFrames.pop();
+        frame.rotation = rotation;
+
+        boolean useCrop = hasFace && framesSinceFullFrame < fullFrameInterval
+            && expandToCrop(lastFaceRect, frameWidth, frameHeight, cropRect);
+
+        if (!useCrop) {
+            framesSinceFullFrame = 0;
+            if (lumaOnly) {
+                cropRect.set(0, 0, frameWidth & ~1, frameHeight & ~1);
+                prepareLuma(frame, imageProxy.getPlanes()[0], cropRect, fullFrameTargetSize);
+                frame.isFullFrame = true;
+                return frame;
+            }
+            frame.image = InputImage.fromMediaImage(mediaImage, rotation);
+            frame.isFullFrame = true;
+            frame.offsetX = 0;
+            frame.offsetY = 0;
+            frame.step = 1;
+            frame.width = frameWidth;
+            frame.height = frameHeight;
+            return frame;
+        }
+
+        framesSinceFullFrame++;
+
+        int limit = targetSizeLimit;
+        int cropTargetSize = limit != NO_SIZE_LIMIT ? Math.min(targetSize, limit) : targetSize;
+
+        if (lumaOnly) {
+            prepareLuma(frame, imageProxy.getPlanes()[0], cropRect, cropTargetSize);
+            frame.isFullFrame = false;
+            return frame;
+        }
+
+        int longestSide = Math.max(cropRect.width(), cropRect.height());
+        int step = Math.max(1, (longestSide + cropTargetSize - 1) / cropTargetSize);
+        // NV21 needs even dimensions
+        int outWidth = (cropRect.width() / step) & ~1;
+        int outHeight = (cropRect.height() / step) & ~1;
+
+        int size = outWidth * outHeight * 3 / 2;
+        if (frame.buffer.length < size) {
+            // Leave some room so small changes in face size reuse the buffer
+            frame.buffer = new byte[size + size / 4];
+        }
+        copyCropToNv21(imageProxy.getPlanes(), cropRect.left, cropRect.top, step,
+            outWidth, outHeight, frame.buffer);
+
+        frame.image = InputImage.fromByteArray(
+            frame.buffer, outWidth, outHeight, rotation, InputImage.IMAGE_FORMAT_NV21
+        );
+        frame.isFullFrame = false;
+        frame.offsetX = cropRect.left;
+        frame.offsetY = cropRect.top;
+        frame.step = step;
+        frame.width = outWidth;
+        frame.height = outHeight;
+        return frame;
+    }
+
+    /**
+     * Update the tracked face from a detection result
+     */
+    public void onFacesDetected(RoiFrame frame, List<DetectedFace> faces) {
+        onFaceDetected(frame, faces.isEmpty() ? null : faces.get(0));
+    }
+
+    /**
+     * Update the tracked face from the face that was scored
+     * (e.g. the primary user chosen by FaceTrackCache)
+     *
+     * @param face null if no face was found
+     */
+    public synchronized void onFaceDetected(RoiFrame frame, @Nullable DetectedFace face) {
+        if (face == null) {
+            // Face lost - next frame will be a full-frame detection
+            hasFace = false;
+            return;
+        }
+
+        uprightRect.set(face.left, face.top, face.right, face.bottom);
+        toSensorRect(uprightRect, frame.width, frame.height, frame.rotation, sensorRect);
+        lastFaceRect.set(
+            frame.offsetX + sensorRect.left * frame.step,
+            frame.offsetY + sensorRect.top * frame.step,
+            frame.offsetX + sensorRect.right * frame.step,
+            frame.offsetY + sensorRect.bottom * frame.step
+        );
+        hasFace = true;
+    }
+
+    /**
+     * Hand a frame back once ML Kit is done with it
+     */
+    public synchronized void release(RoiFrame frame) {
+        frame.image = null;
+        if (frame.lumaBuffer != null) {
+            lumaPool.release(frame.lumaBuffer);
+            frame.lumaBuffer = null;
+        }
+        freeFrames.push(frame);
+    }
+
+    /**
+     * Forget the tracked face (e.g. when the camera restarts)
+     */
+    public synchronized void reset() {
+        hasFace = false;
+        framesSinceFullFrame = 0;
+    }
+
+    /**
+     * Add the margin around the face and clamp to the frame
+     *
+     * @return false if the crop would be too small to be useful
+     */
+    private boolean expandToCrop(Rect face, int frameWidth, int frameHeight, Rect out) {
+        int marginX = (int) (face.width() * margin);
+        int marginY = (int) (face.height() * margin);
+
+        // Even left/top so chroma samples line up with luma
+        int left = Math.max(0, face.left - marginX) & ~1;
+        int top = Math.max(0, face.top - marginY) & ~1;
+        int right = Math.min(frameWidth, face.right + marginX);
+        int bottom = Math.min(frameHeight, face.bottom + marginY);
+
+        if (right - left < MIN_ROI_SIZE || bottom - top < MIN_ROI_SIZE) {
+            return false;
+        }
+        out.set(left, top, right, bottom);
+        return true;
+    }
+
+    /**
+     * Fill a frame with the luma of a region, downscaled so its longest
+     * side is at most maxSize (must hold lock)
+     */
+    private void prepareLuma(RoiFrame frame, ImageProxy.PlaneProxy yPlane, Rect region, int maxSize) {
+        int longestSide = Math.max(region.width(), region.height());
+        int step = Math.max(1, (longestSide + maxSize - 1) / maxSize);
+        // NV21 needs even dimensions
+        int outWidth = (region.width() / step) & ~1;
+        int outHeight = (region.height() / step) & ~1;
+
+        ByteBuffer out = lumaPool.acquire(outWidth, outHeight);
+        copyLuma(yPlane, region.left, region.top, step, outWidth, outHeight, out);
+
+        frame.lumaBuffer = out;
+        frame.image = InputImage.fromByteBuffer(
+            out, outWidth, outHeight, frame.rotation, InputImage.IMAGE_FORMAT_NV21
+        );
+        frame.offsetX = region.left;
+        frame.offsetY = region.top;
+        frame.step = step;
+        frame.width = outWidth;
+        frame.height = outHeight;
+    }
+
+    /**
+     * Copy (and downscale) a region of the Y plane into the start of out
+     * (must hold lock - uses rowScratch)
+     */
+    private void copyLuma(ImageProxy.PlaneProxy yPlane, int left, int top, int step,
+                          int outWidth, int outHeight, ByteBuffer out) {
+        ByteBuffer yBuffer = yPlane.getBuffer();
+        int rowStride = yPlane.getRowStride();
+        int pixelStride = yPlane.getPixelStride();
+
+        if (step == 1 && pixelStride == 1) {
+            // Rows are contiguous - copy them in bulk
+            if (rowScratch.length < outWidth) {
+                rowScratch = new byte[outWidth];
+            }
+            for (int y = 0; y < outHeight; y++) {
+                yBuffer.position((top + y) * rowStride + left);
+                yBuffer.get(rowScratch, 0, outWidth);
+                out.put(rowScratch, 0, outWidth);
+            }
+            yBuffer.rewind();
+            out.rewind();
+            return;
+        }
+
+        int index = 0;
+        for (int y = 0; y < outHeight; y++) {
+            int rowStart = (top + y * step) * rowStride;
+            for (int x = 0; x < outWidth; x++) {
+                out.put(index++, yBuffer.get(rowStart + (left + x * step) * pixelStride));
+            }
+        }
+    }
+
+    /**
+     * Copy a cropped, downscaled region of a YUV_420_888 image into NV21
+     * (Y plane followed by interleaved V/U at half resolution)
+     */
+    private static void copyCropToNv21(ImageProxy.PlaneProxy[] planes, int left, int top, int step,
+                                       int outWidth, int outHeight, byte[] out) {
+        ByteBuffer yBuffer = planes[0].getBuffer();
+        int yRowStride = planes[0].getRowStride();
+        int yPixelStride = planes[0].getPixelStride();
+
+        int index = 0;
+        for (int y = 0; y < outHeight; y++) {
+            int rowStart = (top + y * step) * yRowStride;
+            for (int x = 0; x < outWidth; x++) {
+                out[index++] = yBuffer.get(rowStart + (left + x * step) * yPixelStride);
+            }
+        }
+
+        ByteBuffer uBuffer = planes[1].getBuffer();
+        ByteBuffer vBuffer = planes[2].getBuffer();
+        int uvRowStride = planes[1].getRowStride();
+        int uvPixelStride = planes[1].getPixelStride();
+
+        for (int y = 0; y < outHeight / 2; y++) {
+            int rowStart = ((top + 2 * y * step) / 2) * uvRowStride;
+            for (int x = 0; x < outWidth / 2; x++) {
+                int sourceIndex = rowStart + ((left + 2 * x * step) / 2) * uvPixelStride;
+                out[index++] = vBuffer.get(sourceIndex);
+                out[index++] = uBuffer.get(sourceIndex);
+            }
+        }
+    }
+
+    /**
+     * Convert a box from upright image coordinates to sensor coordinates
+     *
+     * @param width Sensor width of the image the box was detected in
+     * @param height Sensor height of the image the box was detected in
+     * @param out Receives the sensor box
+     */
+    static void toSensorRect(Rect upright, int width, int height, int rotation, Rect out) {
+        switch (rotation) {
+            case 90:
+                out.set(upright.top, height - upright.right, upright.bottom, height - upright.left);
+                break;
+            case 180:
+                out.set(width - upright.right, height - upright.bottom,
+                    width - upright.left, height - upright.top);
+                break;
+            case 270:
+                out.set(width - upright.bottom, upright.left, width - upright.top, upright.right);
+                break;
+            default:
+                out.set(upright);
+                break;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.smartlearn.app.ml;
+
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * FaceTrackCache Class
+ *
+ * Picks the primary user among several detected faces and keeps their
+ * engagement smoothing per ML Kit tracking ID.
+ *
+ * Why this class exists:
+ * - In a shared study room the camera can see more than one face
+ * - ML Kit does not order faces, so "the first face" can be a different
+ *   person every frame, which resets the smoothed signal
+ *
+ * How it works:
+ * - The largest face becomes the primary user
+ * - The current primary keeps that role until another face is clearly
+ *   larger (switchRatio times its area) - stickiness avoids flip-flopping
+ * - Each primary user gets their own EngagementStateMachine, kept in a small
+ *   cache keyed by tracking ID, so a user who was primary before gets
+ *   their smoothing history back
+ * - Entries not seen for evictAfterMs are dropped; when the cache is full the
+ *   least recently seen entry is reused. Memory is bounded by capacity.
+ * - Faces without a tracking ID share one extra state machine
+ */
+public class FaceTrackCache {
+
+    public static final int DEFAULT_CAPACITY = 4;
+    public static final long DEFAULT_EVICT_AFTER_MS = 5000;
+    public static final float DEFAULT_SWITCH_RATIO = 1.5f;
+
+    /**
+     * Smoothing state for one tracked user
+     */
+    private static final class Track {
+        int trackingId = DetectedFace.NO_TRACKING_ID;
+        long lastSeenMs;
+        final EngagementStateMachine stateMachine = new EngagementStateMachine();
+
+        boolean isFree() {
+            return trackingId == DetectedFace.NO_TRACKING_ID;
+        }
+
+        void clear() {
+            trackingId = DetectedFace.NO_TRACKING_ID;
+            stateMachine.reset();
+        }
+    }
+
+    private final long evictAfterMs;
+    private final float switchRatio;
+
+    // Preallocated slots - nothing is allocated per frame
+    private final Track[] tracks;
+    // Used for faces without a tracking ID (and before any face was seen)
+    private final Track untracked = new Track();
+    @Nullable
+    private Track primary;
+
+    public FaceTrackCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_EVICT_AFTER_MS, DEFAULT_SWITCH_RATIO);
+    }
+
+    /**
+     * @param capacity How many tracked users to remember
+     * @param evictAfterMs Forget a user not seen for this long (unless primary)
+     * @param switchRatio How much larger another face must be to become primary
+     */
+    public FaceTrackCache(int capacity, long evictAfterMs, float switchRatio) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.evictAfterMs = evictAfterMs;
+        this.switchRatio = switchRatio;
+        tracks = new Track[capacity];
+        for (int i = 0; i < capacity; i++) {
+            tracks[i] = new Track();
+        }
+    }
+
+    /**
+     * Choose the primary user's face for this frame
+     *
+     * @return The primary face, or null if there are no faces
+     *         (the previous primary stays selected)
+     */
+    @Nullable
+    public synchronized DetectedFace selectPrimary(List<DetectedFace> faces, long nowMs) {
+        evictStale(nowMs);
+        if (faces.isEmpty()) {
+            return null;
+        }
+
+        int primaryId = primary != null ? primary.trackingId : DetectedFace.NO_TRACKING_ID;
+        DetectedFace primaryFace = null;
+        DetectedFace largestFace = null;
+        for (int i = 0; i < faces.size(); i++) {
+            DetectedFace face = faces.get(i);
+            if (primaryId != DetectedFace.NO_TRACKING_ID && face.trackingId == primaryId) {
+                primaryFace = face;
+            }
+            if (largestFace == null || area(face) > area(largestFace)) {
+                largestFace = face;
+            }
+        }
+
+        DetectedFace chosen = largestFace;
+        if (primaryFace != null && area(largestFace) < area(primaryFace) * switchRatio) {
+            // Not clearly larger - stay with the current user
+            chosen = primaryFace;
+        }
+
+        if (chosen.trackingId == DetectedFace.NO_TRACKING_ID) {
+            primary = untracked;
+        } else {
+            primary = obtain(chosen.trackingId);
+        }
+        primary.lastSeenMs = nowMs;
+        return chosen;
+    }
+
+    /**
+     * State machine of the current primary user
+     */
+    public synchronized EngagementStateMachine getPrimaryStateMachine() {
+        return primary != null ? primary.stateMachine : untracked.stateMachine;
+    }
+
+    /**
+     * Tracking ID of the primary user, or DetectedFace.NO_TRACKING_ID
+     */
+    public synchronized int getPrimaryTrackingId() {
+        return primary != null ? primary.trackingId : DetectedFace.NO_TRACKING_ID;
+    }
+
+    /**
+     * Number of tracked users currently cached
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Track track : tracks) {
+            if (!track.isFree()) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Forget everyone (e.g. when the camera is turned back on)
+     */
+    public synchronized void reset() {
+        for (Track track : tracks) {
+            track.clear();
+        }
+        untracked.stateMachine.reset();
+        primary = null;
+    }
+
+    /**
+     * Find the track for an ID, or take a free / least recently seen slot
+     */
+    private Track obtain(int trackingId) {
+        Track free = null;
+        Track oldest = null;
+        for (Track track : tracks) {
+            if (track.trackingId == trackingId) {
+                return track;
+            }
+            if (track.isFree()) {
+                if (free == null) {
+                    free = track;
+                }
+            } else if (track != primary && (oldest == null || track.lastSeenMs < oldest.lastSeenMs)) {
+                oldest = track;
+            }
+        }
+
+        Track slot = free != null ? free : oldest;
+        if (slot == null) {
+            // Capacity 1 and the slot holds the old primary
+            slot = tracks[0];
+        }
+        slot.clear();
+        slot.trackingId = trackingId;
+        return slot;
+    }
+
+    /**
+     * Drop users not seen for evictAfterMs (the primary is kept so that
+     * an empty frame still counts against them)
+     */
+    private void evictStale(long nowMs) {
+        for (Track track : tracks) {
+            if (!track.isFree() && track != primary && nowMs - track.lastSeenMs > evictAfterMs) {
+                track.clear();
+            }
+        }
+    }
+
+    private static long area(DetectedFace face) {
+        return (long) face.width() * face.height();
+    }
+}
@@ -0,0 +1,165 @@
+package com.smartlearn.app.ml;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FramePipeline Class
+ *
+ * Sits between CameraX ImageAnalysis and EngagementAnalyzer.
+ *
+ * Why this class exists:
+ * - ML Kit face detection is asynchronous: process() returns right away
+ *   and the result arrives later
+ * - If we close the ImageProxy right after calling process(), CameraX
+ *   thinks we are done and hands us the next frame immediately
+ * - Detections then pile up faster than the detector can finish them
+ *   (high CPU, heat, growing latency)
+ *
+ * How it works:
+ * - Each ImageProxy is held until its detection task completes
+ * - Only maxInFlight detections may run at the same time (default 1)
+ * - Frames that arrive while the pipeline is full are closed right away
+ *   and counted as dropped
+ * - Frames the analyzer's FrameRateGovernor does not want are closed right
+ *   away and counted as skipped
+ * - The counts also go to the analyzer's EngagementMetrics, if it has one
+ */
+public class FramePipeline implements ImageAnalysis.Analyzer,
+        EngagementAnalyzer.FrameReleaseListener {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1;
+
+    private final EngagementAnalyzer engagementAnalyzer;
+    private final int maxInFlight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong framesAnalyzed = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong framesSkipped = new AtomicLong();
+
+    /**
+     * Results are delivered to the analyzer's registered EngagementListener
+     */
+    public FramePipeline(EngagementAnalyzer engagementAnalyzer) {
+        this(engagementAnalyzer, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public FramePipeline(EngagementAnalyzer engagementAnalyzer, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.engagementAnalyzer = engagementAnalyzer;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Configure the ImageAnalysis builder to match this pipeline
+     *
+     * BLOCK_PRODUCER with room for one more image than we keep in flight:
+     * CameraX always hands us the next frame, and a frame that arrives while
+     * the pipeline is full is dropped (and counted) here. With
+     * KEEP_ONLY_LATEST CameraX would drop those frames itself and the
+     * dropped count would always be 0.
+     */
+    public ImageAnalysis.Builder configure(ImageAnalysis.Builder builder) {
+        return builder
+            .setBackpressureStrategy(ImageAnalysis.STRATEGY_BLOCK_PRODUCER)
+            .setImageQueueDepth(maxInFlight + 1);
+    }
+
+    /**
+     * Called by CameraX on the camera executor for every frame
+     */
+    @Override
+    public void analyze(@NonNull ImageProxy imageProxy) {
+        EngagementMetrics metrics = engagementAnalyzer.getMetrics();
+        if (metrics != null) {
+            metrics.onFrameReceived();
+        }
+
+        if (!tryAcquireSlot()) {
+            // Pipeline is full - drop this frame
+            framesDropped.incrementAndGet();
+            if (metrics != null) {
+                metrics.onFrameDropped();
+            }
+            imageProxy.close();
+            return;
+        }
+
+        // Only ask the governor once we know the frame can actually run,
+        // otherwise it would schedule around a frame that was dropped
+        if (!engagementAnalyzer.shouldAnalyzeFrame(engagementAnalyzer.getClock().nowMs())) {
+            // Not needed at the current analysis rate
+            inFlight.decrementAndGet();
+            framesSkipped.incrementAndGet();
+            if (metrics != null) {
+                metrics.onFrameSkipped();
+            }
+            imageProxy.close();
+            return;
+        }
+
+        // The frame stays open until ML Kit has finished with it
+        boolean started = engagementAnalyzer.analyzeFrame(imageProxy, this);
+
+        if (started) {
+            framesAnalyzed.incrementAndGet();
+            if (metrics != null) {
+                metrics.onFrameAnalyzed();
+            }
+        } else {
+            inFlight.decrementAndGet();
+            imageProxy.close();
+        }
+    }
+
+    /**
+     * Called once ML Kit has finished with a frame
+     */
+    @Override
+    public void onFrameReleased(ImageProxy imageProxy) {
+        imageProxy.close();
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Reserve an in-flight slot without ever going above maxInFlight
+     */
+    private boolean tryAcquireSlot() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getFramesAnalyzed() {
+        return framesAnalyzed.get();
+    }
+
+    public long getFramesDropped() {
+        return framesDropped.get();
+    }
+
+    public long getFramesSkipped() {
+        return framesSkipped.get();
+    }
+}
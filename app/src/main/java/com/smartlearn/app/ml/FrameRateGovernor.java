@@ -0,0 +1,135 @@
+package com.smartlearn.app.ml;
+
+/**
+ * FrameRateGovernor Class
+ *
+ * Decides how often camera frames are actually analyzed.
+ *
+ * Why this class exists:
+ * - Engagement changes over seconds, not milliseconds
+ * - Analyzing every frame CameraX delivers (~30 fps) wastes battery
+ *   during long study sessions
+ *
+ * How it works:
+ * - While the state is changing (or the user is TIRED / DISTRACTED)
+ *   we sample at the active rate so nothing is missed
+ * - Once the user has been FOCUSED for a while we drop to the steady rate
+ *   (about 1-2 fps)
+ * - We never ask for frames faster than the detector can finish them
+ *   (measured detector latency)
+ * - When the device is hot or low on battery the WorkloadScheduler sets
+ *   a slowdown factor that stretches the interval further
+ *
+ * All times are in milliseconds from the same clock
+ * (SystemClock.elapsedRealtime() in the app).
+ */
+public class FrameRateGovernor {
+
+    public static final float DEFAULT_ACTIVE_FPS = 10f;
+    public static final float DEFAULT_STEADY_FPS = 1.5f;
+    public static final long DEFAULT_STEADY_AFTER_MS = 5000;
+
+    // Weight of the newest sample in the latency moving average
+    private static final float LATENCY_SMOOTHING = 0.2f;
+    // Leave some headroom so the detector is not constantly saturated
+    private static final float LATENCY_HEADROOM = 1.2f;
+
+    private final float activeFps;
+    private final float steadyFps;
+    private final long steadyAfterMs;
+
+    private volatile int slowdownFactor = 1;
+
+    private int lastState = EngagementState.NONE;
+    private long lastStateChangeMs;
+    private long nextFrameAtMs;
+    private float latencyAverageMs;
+
+    public FrameRateGovernor() {
+        this(DEFAULT_ACTIVE_FPS, DEFAULT_STEADY_FPS, DEFAULT_STEADY_AFTER_MS);
+    }
+
+    /**
+     * @param activeFps Target rate while the state is changing
+     * @param steadyFps Target rate once the user has been focused for steadyAfterMs
+     * @param steadyAfterMs How long the state must stay FOCUSED before slowing down
+     */
+    public FrameRateGovernor(float activeFps, float steadyFps, long steadyAfterMs) {
+        if (activeFps <= 0 || steadyFps <= 0 || steadyFps > activeFps) {
+            throw new IllegalArgumentException("Need 0 < steadyFps <= activeFps");
+        }
+        this.activeFps = activeFps;
+        this.steadyFps = steadyFps;
+        this.steadyAfterMs = steadyAfterMs;
+    }
+
+    /**
+     * Should the frame arriving now be analyzed?
+     * If yes, the next frame is scheduled based on the current interval.
+     */
+    public synchronized boolean shouldAnalyze(long nowMs) {
+        if (nowMs < nextFrameAtMs) {
+            return false;
+        }
+        nextFrameAtMs = nowMs + getCurrentIntervalMs(nowMs);
+        return true;
+    }
+
+    /**
+     * Report the result of an analyzed frame
+     *
+     * @param engagementState State returned for the frame (EngagementState code)
+     * @param latencyMs How long the detector took
+     * @param nowMs When the result arrived
+     */
+    public synchronized void onFrameAnalyzed(int engagementState, long latencyMs, long nowMs) {
+        if (latencyAverageMs == 0) {
+            latencyAverageMs = latencyMs;
+        } else {
+            latencyAverageMs += LATENCY_SMOOTHING * (latencyMs - latencyAverageMs);
+        }
+
+        if (engagementState != lastState) {
+            lastState = engagementState;
+            lastStateChangeMs = nowMs;
+            // Something changed - come back to the active rate right away
+            long activeNext = nowMs + getActiveIntervalMs();
+            if (activeNext < nextFrameAtMs) {
+                nextFrameAtMs = activeNext;
+            }
+        }
+    }
+
+    /**
+     * Multiply every interval by this factor (1 = normal rate)
+     */
+    public void setSlowdownFactor(int slowdownFactor) {
+        if (slowdownFactor < 1) {
+            throw new IllegalArgumentException("slowdownFactor must be at least 1");
+        }
+        this.slowdownFactor = slowdownFactor;
+    }
+
+    /**
+     * Current time between analyzed frames
+     */
+    public synchronized long getCurrentIntervalMs(long nowMs) {
+        boolean steady = lastState == EngagementState.FOCUSED
+            && nowMs - lastStateChangeMs >= steadyAfterMs;
+
+        long intervalMs = (long) (1000f / (steady ? steadyFps : activeFps));
+        long latencyBoundMs = (long) (latencyAverageMs * LATENCY_HEADROOM);
+        if (latencyBoundMs > intervalMs) {
+            intervalMs = latencyBoundMs;
+        }
+        return intervalMs * slowdownFactor;
+    }
+
+    public synchronized float getLatencyAverageMs() {
+        return latencyAverageMs;
+    }
+
+    private long getActiveIntervalMs() {
+        return (long) (1000f / activeFps) * slowdownFactor;
+    }
+}
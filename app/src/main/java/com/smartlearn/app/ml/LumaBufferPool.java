@@ -0,0 +1,102 @@
+package com.smartlearn.app.ml;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+
+/**
+ * LumaBufferPool Class
+ *
+ * Reusable direct ByteBuffers holding grayscale NV21 images.
+ *
+ * Why this class exists:
+ * - Face detection only needs brightness (the Y / luma plane)
+ * - Copying the color planes as well, into a new array every frame,
+ *   costs memory bandwidth and creates garbage at high analysis rates
+ *
+ * How it works:
+ * - Each buffer is laid out as NV21 (Y plane, then interleaved V/U)
+ * - The V/U part must be 128 ("no color"). A new buffer is filled once,
+ *   from the end of the luma to its capacity. The pool then remembers
+ *   where the neutral bytes start in each buffer, because luma only
+ *   overwrites the bytes before that point.
+ * - ROI crops change size almost every frame. A bigger or equal crop
+ *   needs no fill at all. A smaller one refills only the gap between
+ *   its luma end and the old one.
+ * - Buffers are direct so ML Kit can read them without another copy
+ * - Released buffers go back to the pool (up to maxPooled of them)
+ */
+public class LumaBufferPool {
+
+    public static final int DEFAULT_MAX_POOLED = 4;
+
+    // Chroma value meaning "no color" in YUV
+    private static final byte NEUTRAL_CHROMA = (byte) 128;
+
+    private final int maxPooled;
+    private final ArrayDeque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+    // Per buffer: every byte from this index to the capacity is neutral chroma
+    // (identity map - ByteBuffer.equals() compares contents)
+    private final IdentityHashMap<ByteBuffer, Integer> neutralFrom = new IdentityHashMap<>();
+
+    public LumaBufferPool() {
+        this(DEFAULT_MAX_POOLED);
+    }
+
+    /**
+     * @param maxPooled How many free buffers to keep around
+     */
+    public LumaBufferPool(int maxPooled) {
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Get a buffer for a width x height grayscale NV21 image
+     *
+     * The buffer's limit is the NV21 size and its chroma part is neutral.
+     * Only the first width * height bytes (luma) need to be written.
+     */
+    public synchronized ByteBuffer acquire(int width, int height) {
+        int lumaSize = width * height;
+        int size = lumaSize + lumaSize / 2;
+
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer == null || buffer.capacity() < size) {
+            if (buffer != null) {
+                neutralFrom.remove(buffer);
+            }
+            // Leave some room so small changes in size reuse the buffer
+            buffer = ByteBuffer.allocateDirect(size + size / 4);
+            fillChroma(buffer, lumaSize, buffer.capacity());
+        } else {
+            // Only a smaller image needs work: the old luma reaches into its chroma
+            Integer neutral = neutralFrom.get(buffer);
+            if (neutral != null && neutral > lumaSize) {
+                fillChroma(buffer, lumaSize, neutral);
+            }
+        }
+        // The caller overwrites the luma; everything after it stays neutral
+        neutralFrom.put(buffer, lumaSize);
+
+        buffer.clear();
+        buffer.limit(size);
+        return buffer;
+    }
+
+    /**
+     * Hand a buffer back once ML Kit is done with it
+     */
+    public synchronized void release(ByteBuffer buffer) {
+        if (freeBuffers.size() < maxPooled) {
+            freeBuffers.push(buffer);
+        } else {
+            neutralFrom.remove(buffer);
+        }
+    }
+
+    private static void fillChroma(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            buffer.put(i, NEUTRAL_CHROMA);
+        }
+    }
+}
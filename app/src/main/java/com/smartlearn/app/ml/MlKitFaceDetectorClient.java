@@ -0,0 +1,241 @@
+package com.smartlearn.app.ml;
+
+import android.graphics.PointF;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.face.Face;
+import com.google.mlkit.vision.face.FaceDetection;
+import com.google.mlkit.vision.face.FaceDetector;
+import com.google.mlkit.vision.face.FaceLandmark;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * MlKitFaceDetectorClient Class
+ *
+ * FaceDetectorClient backed by ML Kit Face Detection (on-device).
+ * Converts ML Kit Face results into reused DetectedFace objects.
+ *
+ * Detector tiers:
+ * - The ML Kit client is built for the current DetectorTier
+ * - When the tier changes a new client is created right away and the old
+ *   one is closed once its last in-flight detection has finished
+ * - The first client is created lazily on the first detect() call
+ *   (or by warmUp())
+ */
+public class MlKitFaceDetectorClient implements FaceDetectorClient {
+
+    // Side of the blank image used to load the model
+    private static final int WARM_UP_SIZE = 32;
+
+    // Per-call listener objects are reused instead of allocating lambdas
+    private final ArrayDeque<Request> freeRequests = new ArrayDeque<>();
+
+    private final Object lock = new Object();
+    private int tier;
+    private DetectorHandle current;
+    private boolean closed;
+
+    /**
+     * One ML Kit client and the detections still running on it
+     */
+    private static final class DetectorHandle {
+        final FaceDetector detector;
+        final int tier;
+        int inFlight;
+        boolean retired;
+
+        DetectorHandle(int tier) {
+            this.tier = tier;
+            this.detector = FaceDetection.getClient(DetectorTier.options(tier));
+        }
+    }
+
+    public MlKitFaceDetectorClient() {
+        this(DetectorTier.CLASSIFICATION);
+    }
+
+    public MlKitFaceDetectorClient(int tier) {
+        this.tier = tier;
+    }
+
+    @Override
+    public void setTier(int tier) {
+        synchronized (lock) {
+            if (this.tier == tier) {
+                return;
+            }
+            this.tier = tier;
+            if (current != null) {
+                // Swap now; the old client finishes its frames, then closes
+                retire(current);
+                current = new DetectorHandle(tier);
+            }
+        }
+    }
+
+    public int getTier() {
+        synchronized (lock) {
+            return tier;
+        }
+    }
+
+    @Override
+    public void detect(InputImage image, Executor executor, Listener listener) {
+        DetectorHandle handle;
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Detector client is closed");
+            }
+            if (current == null) {
+                current = new DetectorHandle(tier);
+            }
+            handle = current;
+            handle.inFlight++;
+        }
+
+        Request request;
+        synchronized (freeRequests) {
+            request = freeRequests.poll();
+        }
+        if (request == null) {
+            request = new Request();
+        }
+        request.listener = listener;
+        request.handle = handle;
+        handle.detector.process(image).addOnCompleteListener(executor, request);
+    }
+
+    /**
+     * Create the ML Kit client and run one tiny detection so the model
+     * is loaded before the first real frame arrives
+     */
+    public void warmUp() {
+        DetectorHandle handle;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            if (current == null) {
+                current = new DetectorHandle(tier);
+            }
+            handle = current;
+            handle.inFlight++;
+        }
+
+        InputImage blank = InputImage.fromByteArray(
+            new byte[WARM_UP_SIZE * WARM_UP_SIZE * 3 / 2],
+            WARM_UP_SIZE, WARM_UP_SIZE, 0, InputImage.IMAGE_FORMAT_NV21
+        );
+        handle.detector.process(blank).addOnCompleteListener(task -> onDetectionFinished(handle));
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            if (current != null) {
+                retire(current);
+                current = null;
+            }
+        }
+    }
+
+    /**
+     * Mark a handle as replaced; close it if nothing is running on it
+     * (must hold lock)
+     */
+    private static void retire(DetectorHandle handle) {
+        handle.retired = true;
+        if (handle.inFlight == 0) {
+            handle.detector.close();
+        }
+    }
+
+    private void onDetectionFinished(DetectorHandle handle) {
+        synchronized (lock) {
+            handle.inFlight--;
+            if (handle.retired && handle.inFlight == 0) {
+                handle.detector.close();
+            }
+        }
+    }
+
+    private final class Request implements OnCompleteListener<List<Face>> {
+        Listener listener;
+        DetectorHandle handle;
+        private final ArrayList<DetectedFace> faces = new ArrayList<>();
+        private final ArrayList<DetectedFace> facePool = new ArrayList<>();
+
+        @Override
+        public void onComplete(@NonNull Task<List<Face>> task) {
+            Listener target = listener;
+            DetectorHandle finishedHandle = handle;
+            listener = null;
+            handle = null;
+
+            // Release the detector before calling out, so a tier switch
+            // triggered from the listener can close it right away
+            onDetectionFinished(finishedHandle);
+
+            if (task.isSuccessful()) {
+                List<Face> result = task.getResult();
+                faces.clear();
+                for (int i = 0; i < result.size(); i++) {
+                    if (facePool.size() <= i) {
+                        facePool.add(new DetectedFace());
+                    }
+                    DetectedFace detectedFace = facePool.get(i);
+                    copyFace(result.get(i), detectedFace);
+                    faces.add(detectedFace);
+                }
+                target.onFacesDetected(faces);
+            } else {
+                Exception error = task.getException();
+                target.onDetectionFailed(error != null ? error : new IllegalStateException("Detection cancelled"));
+            }
+
+            synchronized (freeRequests) {
+                freeRequests.push(this);
+            }
+        }
+    }
+
+    private static void copyFace(Face face, DetectedFace out) {
+        out.reset();
+        out.left = face.getBoundingBox().left;
+        out.top = face.getBoundingBox().top;
+        out.right = face.getBoundingBox().right;
+        out.bottom = face.getBoundingBox().bottom;
+        if (face.getTrackingId() != null) {
+            out.trackingId = face.getTrackingId();
+        }
+        if (face.getLeftEyeOpenProbability() != null) {
+            out.leftEyeOpenProbability = face.getLeftEyeOpenProbability();
+        }
+        if (face.getRightEyeOpenProbability() != null) {
+            out.rightEyeOpenProbability = face.getRightEyeOpenProbability();
+        }
+        if (face.getSmilingProbability() != null) {
+            out.smilingProbability = face.getSmilingProbability();
+        }
+        out.headEulerAngleY = face.getHeadEulerAngleY();
+        out.headEulerAngleZ = face.getHeadEulerAngleZ();
+
+        // Landmarks are only present in the LANDMARKS and FULL tiers
+        FaceLandmark noseBase = face.getLandmark(FaceLandmark.NOSE_BASE);
+        FaceLandmark mouthBottom = face.getLandmark(FaceLandmark.MOUTH_BOTTOM);
+        if (noseBase != null && mouthBottom != null && out.height() > 0) {
+            PointF nose = noseBase.getPosition();
+            PointF mouth = mouthBottom.getPosition();
+            out.mouthOpenRatio = (mouth.y - nose.y) / out.height();
+        }
+    }
+}
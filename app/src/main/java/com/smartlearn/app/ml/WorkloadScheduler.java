@@ -0,0 +1,174 @@
+package com.smartlearn.app.ml;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
+
+import androidx.annotation.Nullable;
+
+/**
+ * WorkloadScheduler Class
+ *
+ * Scales the engagement camera workload down when the phone is hot,
+ * low on battery or in battery saver.
+ *
+ * Why this class exists:
+ * - Students leave the camera on for whole sessions, often while charging
+ * - A hot phone gets throttled by the system, which slows down the whole
+ *   app, not just the camera
+ *
+ * Degradation levels (each includes the ones before):
+ * - LEVEL_FULL: normal analysis
+ * - LEVEL_REDUCED_RATE: analyze half as often
+ * - LEVEL_SMALL_ROI: a third as often, on smaller face crops
+ * - LEVEL_PAUSED: no analysis; the UI shows a notice
+ *
+ * How it works:
+ * - Every checkIntervalMs the DeviceSignals are read and evaluate() picks a level
+ * - The level is applied to the FrameRateGovernor, FaceRoiTracker and
+ *   EngagementAnalyzer, and the listener is told (main thread)
+ * - evaluate() is a pure function of the signals, so the policy can be
+ *   checked with fake signals
+ */
+public class WorkloadScheduler {
+
+    public static final int LEVEL_FULL = 0;
+    public static final int LEVEL_REDUCED_RATE = 1;
+    public static final int LEVEL_SMALL_ROI = 2;
+    public static final int LEVEL_PAUSED = 3;
+
+    public static final long DEFAULT_CHECK_INTERVAL_MS = 10_000;
+
+    // Battery thresholds (percent) when not charging
+    private static final int BATTERY_REDUCED = 30;
+    private static final int BATTERY_SMALL_ROI = 15;
+    private static final int BATTERY_PAUSED = 5;
+
+    // Governor slowdown and ROI size per level
+    private static final int[] SLOWDOWN_FACTORS = {1, 2, 3, 3};
+    private static final int SMALL_ROI_TARGET_SIZE = 160;
+
+    /**
+     * Told when the level changes (main thread)
+     */
+    public interface Listener {
+        void onWorkloadLevelChanged(int level);
+    }
+
+    private final DeviceSignals signals;
+    private final EngagementAnalyzer engagementAnalyzer;
+    private final FrameRateGovernor frameRateGovernor;
+    private final FaceRoiTracker roiTracker;
+    private final long checkIntervalMs;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable checkRunnable = new Runnable() {
+        @Override
+        public void run() {
+            check();
+            handler.postDelayed(this, checkIntervalMs);
+        }
+    };
+
+    private int level = LEVEL_FULL;
+    private boolean running;
+    @Nullable
+    private Listener listener;
+
+    public WorkloadScheduler(DeviceSignals signals, EngagementAnalyzer engagementAnalyzer,
+                             FrameRateGovernor frameRateGovernor, FaceRoiTracker roiTracker) {
+        this(signals, engagementAnalyzer, frameRateGovernor, roiTracker, DEFAULT_CHECK_INTERVAL_MS);
+    }
+
+    public WorkloadScheduler(DeviceSignals signals, EngagementAnalyzer engagementAnalyzer,
+                             FrameRateGovernor frameRateGovernor, FaceRoiTracker roiTracker,
+                             long checkIntervalMs) {
+        this.signals = signals;
+        this.engagementAnalyzer = engagementAnalyzer;
+        this.frameRateGovernor = frameRateGovernor;
+        this.roiTracker = roiTracker;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+
+    /**
+     * Pick the degradation level for the given signals
+     */
+    public static int evaluate(DeviceSignals signals) {
+        int thermal = signals.getThermalStatus();
+        int battery = signals.getBatteryPercent();
+        boolean charging = signals.isCharging();
+        boolean lowBatteryKnown = !charging && battery != DeviceSignals.BATTERY_UNKNOWN;
+
+        if (thermal >= PowerManager.THERMAL_STATUS_CRITICAL
+                || (lowBatteryKnown && battery <= BATTERY_PAUSED)) {
+            return LEVEL_PAUSED;
+        }
+        if (thermal >= PowerManager.THERMAL_STATUS_SEVERE
+                || (lowBatteryKnown && battery <= BATTERY_SMALL_ROI)) {
+            return LEVEL_SMALL_ROI;
+        }
+        if (thermal >= PowerManager.THERMAL_STATUS_MODERATE
+                || signals.isPowerSaveMode()
+                || (lowBatteryKnown && battery <= BATTERY_REDUCED)
+                // Charging already heats the phone - back off early
+                || (charging && thermal >= PowerManager.THERMAL_STATUS_LIGHT)) {
+            return LEVEL_REDUCED_RATE;
+        }
+        return LEVEL_FULL;
+    }
+
+    /**
+     * Start checking (when the camera is turned on) - main thread
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        checkRunnable.run();
+    }
+
+    /**
+     * Stop checking and go back to full workload - main thread
+     */
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(checkRunnable);
+        // Tell the listener too, so a "paused" notice doesn't stay on screen
+        changeLevel(LEVEL_FULL);
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    private void check() {
+        changeLevel(evaluate(signals));
+    }
+
+    /**
+     * Apply a level and tell the listener, if it is a change
+     */
+    private void changeLevel(int newLevel) {
+        if (newLevel == level) {
+            return;
+        }
+        applyLevel(newLevel);
+        if (listener != null) {
+            listener.onWorkloadLevelChanged(newLevel);
+        }
+    }
+
+    private void applyLevel(int newLevel) {
+        level = newLevel;
+        frameRateGovernor.setSlowdownFactor(SLOWDOWN_FACTORS[newLevel]);
+        roiTracker.setTargetSizeLimit(newLevel >= LEVEL_SMALL_ROI
+            ? SMALL_ROI_TARGET_SIZE
+            : FaceRoiTracker.NO_SIZE_LIMIT);
+        engagementAnalyzer.setPaused(newLevel == LEVEL_PAUSED);
+    }
+}
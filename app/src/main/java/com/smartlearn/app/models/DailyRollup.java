@@ -0,0 +1,76 @@
+package com.smartlearn.app.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+
+/**
+ * DailyRollup Model Class
+ * 
+ * Totals of one user's sessions on one day.
+ * 
+ * Why rollups?
+ * - Raw focus_sessions rows grow forever (several per day, every day)
+ * - Charts only need per-day totals for old history
+ * - SessionCompactor folds sessions older than the retention window into
+ *   these rows and deletes the raw rows, so the database stays small
+ * 
+ * day = days since 1970-01-01 in the device's local time zone
+ * (at the time the rollup was made)
+ */
+@Entity(tableName = "daily_rollups", primaryKeys = {"userId", "day"})
+public class DailyRollup {
+    @NonNull
+    private String userId = ""; // Firebase user ID
+    
+    private long day; // Local epoch day
+    private long focusMs; // Total FOCUS duration
+    private long breakMs; // Total BREAK duration
+    private int completedCount; // Completed FOCUS sessions
+    
+    // Default constructor
+    public DailyRollup() {
+    }
+    
+    // Getters and Setters
+    
+    @NonNull
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(@NonNull String userId) {
+        this.userId = userId;
+    }
+    
+    public long getDay() {
+        return day;
+    }
+    
+    public void setDay(long day) {
+        this.day = day;
+    }
+    
+    public long getFocusMs() {
+        return focusMs;
+    }
+    
+    public void setFocusMs(long focusMs) {
+        this.focusMs = focusMs;
+    }
+    
+    public long getBreakMs() {
+        return breakMs;
+    }
+    
+    public void setBreakMs(long breakMs) {
+        this.breakMs = breakMs;
+    }
+    
+    public int getCompletedCount() {
+        return completedCount;
+    }
+    
+    public void setCompletedCount(int completedCount) {
+        this.completedCount = completedCount;
+    }
+}
@@ -0,0 +1,99 @@
+package com.smartlearn.app.models;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * EngagementSample Model Class
+ * 
+ * One engagement reading (FOCUSED / TIRED / DISTRACTED) taken by the
+ * engagement analyzer while the camera is on.
+ * 
+ * Why store samples?
+ * - The engagement status used to be shown once and then lost
+ * - With a timeline per session we can give each focus session a
+ *   focus score (share of samples where the user was FOCUSED)
+ * 
+ * Link to FocusSession:
+ * - Samples are recorded while the session is still running, before the
+ *   session row exists, so sessionId starts as null
+ * - When the session is saved, samples in its time range are linked to it
+ *   (see EngagementSampleDao.linkSamplesToSession)
+ * - Deleting a session deletes its samples (CASCADE)
+ */
+@Entity(
+    tableName = "engagement_samples",
+    foreignKeys = @ForeignKey(
+        entity = FocusSession.class,
+        parentColumns = "id",
+        childColumns = "sessionId",
+        onDelete = ForeignKey.CASCADE
+    ),
+    indices = {
+        @Index("sessionId"),
+        @Index({"userId", "timestampMs"})
+    }
+)
+public class EngagementSample {
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    
+    private Long sessionId; // FocusSession id, null until linked
+    private String userId; // Firebase user ID
+    private long timestampMs; // Wall clock time (System.currentTimeMillis)
+    private int state; // EngagementState code
+    
+    // Default constructor
+    public EngagementSample() {
+    }
+    
+    public EngagementSample(String userId, long timestampMs, int state) {
+        this.userId = userId;
+        this.timestampMs = timestampMs;
+        this.state = state;
+    }
+    
+    // Getters and Setters
+    
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public Long getSessionId() {
+        return sessionId;
+    }
+    
+    public void setSessionId(Long sessionId) {
+        this.sessionId = sessionId;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public long getTimestampMs() {
+        return timestampMs;
+    }
+    
+    public void setTimestampMs(long timestampMs) {
+        this.timestampMs = timestampMs;
+    }
+    
+    public int getState() {
+        return state;
+    }
+    
+    public void setState(int state) {
+        this.state = state;
+    }
+}
@@ -1,6 +1,7 @@
 package com.smartlearn.app.models;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import java.util.Date;
@@ -18,8 +19,21 @@ import java.util.Date;
  * - Perfect for logging focus sessions
  * 
  * @Entity annotation tells Room this is a database table
+ * 
+ * startTime / endTime are stored as epoch milliseconds (INTEGER) by
+ * Converters, so time-window queries compare plain numbers.
+ * 
+ * Index (every FocusSessionDao query filters by userId):
+ * - (userId, startTime): history list, already sorted by time, and
+ *   [from, to) range queries (today, this week...)
+ * - All-time totals come from user_stats, so no index covers them
  */
-@Entity(tableName = "focus_sessions")
+@Entity(
+    tableName = "focus_sessions",
+    indices = {
+        @Index({"userId", "startTime"})
+    }
+)
 public class FocusSession {
     @PrimaryKey(autoGenerate = true)
     private long id;
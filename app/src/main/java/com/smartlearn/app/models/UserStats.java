@@ -0,0 +1,67 @@
+package com.smartlearn.app.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * UserStats Model Class
+ * 
+ * Running totals of a user's focus sessions (one row per user).
+ * 
+ * Why a separate table?
+ * - Summing every focus_sessions row each time a screen shows stats gets
+ *   slower as the history grows
+ * - These totals are updated in the same transaction as each session
+ *   insert (FocusSessionDao.insertSession), so reading them is a
+ *   single-row lookup no matter how long the history is
+ */
+@Entity(tableName = "user_stats")
+public class UserStats {
+    @PrimaryKey
+    @NonNull
+    private String userId = ""; // Firebase user ID
+    
+    private long totalFocusMs; // Sum of FOCUS session durations
+    private int completedFocusSessions; // Completed FOCUS sessions
+    private long lastSessionTime; // End time of the latest session (epoch ms), 0 = none
+    
+    // Default constructor
+    public UserStats() {
+    }
+    
+    // Getters and Setters
+    
+    @NonNull
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(@NonNull String userId) {
+        this.userId = userId;
+    }
+    
+    public long getTotalFocusMs() {
+        return totalFocusMs;
+    }
+    
+    public void setTotalFocusMs(long totalFocusMs) {
+        this.totalFocusMs = totalFocusMs;
+    }
+    
+    public int getCompletedFocusSessions() {
+        return completedFocusSessions;
+    }
+    
+    public void setCompletedFocusSessions(int completedFocusSessions) {
+        this.completedFocusSessions = completedFocusSessions;
+    }
+    
+    public long getLastSessionTime() {
+        return lastSessionTime;
+    }
+    
+    public void setLastSessionTime(long lastSessionTime) {
+        this.lastSessionTime = lastSessionTime;
+    }
+}
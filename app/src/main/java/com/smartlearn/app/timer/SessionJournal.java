@@ -0,0 +1,215 @@
+package com.smartlearn.app.timer;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * SessionJournal Class
+ * 
+ * Remembers the Pomodoro session in progress, so a killed process
+ * doesn't lose it.
+ * 
+ * Why this class exists:
+ * - A session is only written to Room when its phase ends
+ * - If Android kills the app halfway through, the session was gone
+ * 
+ * How it works:
+ * - One small fixed-size record (RECORD_SIZE bytes) in a file, overwritten
+ *   in place: session start, phase length, remaining time, running or
+ *   paused, and the wall-clock time of this checkpoint
+ * - TimerEngine writes it on start/pause and at most every
+ *   CHECKPOINT_INTERVAL_MS while the timer is on screen; a running
+ *   session's deadline is in the record, so no background checkpoints
+ *   are needed
+ * - Writes happen on a background thread, into a buffer allocated once -
+ *   cheap enough to leave on all the time
+ * - A CRC32 at the end detects a half-written record (it is ignored)
+ * - On the next launch TimerEngine.recoverFromJournal() reads it back
+ */
+public class SessionJournal {
+    
+    private static final String TAG = "SessionJournal";
+    private static final String FILE_NAME = "session_journal.bin";
+    
+    public static final long CHECKPOINT_INTERVAL_MS = 30 * 1000;
+    
+    private static final int MAGIC = 0x534C4A31; // "SLJ1"
+    private static final int STATE_CLOSED = 0;
+    private static final int STATE_OPEN = 1;
+    private static final int RECORD_SIZE = 256;
+    private static final int CRC_OFFSET = RECORD_SIZE - 8;
+    private static final int MAX_TEXT_BYTES = 64;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    
+    /**
+     * One checkpoint of the open session
+     */
+    public static final class Entry {
+        public final String userId;
+        public final String sessionType;
+        public final long startTimeMs; // Wall clock (epoch ms)
+        public final long durationMs; // Full length of the phase
+        public final long remainingMs; // At checkpointMs
+        public final long checkpointMs; // Wall clock (epoch ms)
+        public final boolean isRunning;
+        
+        public Entry(String userId, String sessionType, long startTimeMs, long durationMs,
+                     long remainingMs, long checkpointMs, boolean isRunning) {
+            this.userId = userId;
+            this.sessionType = sessionType;
+            this.startTimeMs = startTimeMs;
+            this.durationMs = durationMs;
+            this.remainingMs = remainingMs;
+            this.checkpointMs = checkpointMs;
+            this.isRunning = isRunning;
+        }
+    }
+    
+    private final File file;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+    
+    // Writer thread only
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private RandomAccessFile output;
+    private long openStartTimeMs = -1;
+    
+    public SessionJournal(Context context) {
+        file = new File(context.getFilesDir(), FILE_NAME);
+    }
+    
+    /**
+     * Read the open session, if any (blocking, but only RECORD_SIZE bytes)
+     * 
+     * @return null if no session was open or the record is damaged
+     */
+    @Nullable
+    public Entry read() {
+        if (!file.exists() || file.length() < RECORD_SIZE) {
+            return null;
+        }
+        byte[] bytes = new byte[RECORD_SIZE];
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            input.readFully(bytes);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read session journal", e);
+            return null;
+        }
+        
+        ByteBuffer record = ByteBuffer.wrap(bytes);
+        CRC32 check = new CRC32();
+        check.update(bytes, 0, CRC_OFFSET);
+        if (record.getInt(0) != MAGIC || record.getLong(CRC_OFFSET) != check.getValue()) {
+            return null;
+        }
+        
+        record.position(4);
+        if (record.getInt() != STATE_OPEN) {
+            return null;
+        }
+        long startTimeMs = record.getLong();
+        long durationMs = record.getLong();
+        long remainingMs = record.getLong();
+        long checkpointMs = record.getLong();
+        boolean isRunning = record.get() != 0;
+        String userId = getText(record);
+        String sessionType = getText(record);
+        return new Entry(userId, sessionType, startTimeMs, durationMs, remainingMs,
+            checkpointMs, isRunning);
+    }
+    
+    /**
+     * Save a checkpoint of the open session (in the background)
+     */
+    public void write(Entry entry) {
+        writer.execute(() -> {
+            byte[] userId = entry.userId != null ? entry.userId.getBytes(UTF_8) : new byte[0];
+            byte[] sessionType = entry.sessionType.getBytes(UTF_8);
+            if (userId.length > MAX_TEXT_BYTES || sessionType.length > MAX_TEXT_BYTES) {
+                Log.w(TAG, "Session details too long for the journal");
+                return;
+            }
+            
+            Arrays.fill(buffer.array(), (byte) 0);
+            buffer.clear();
+            buffer.putInt(MAGIC);
+            buffer.putInt(STATE_OPEN);
+            buffer.putLong(entry.startTimeMs);
+            buffer.putLong(entry.durationMs);
+            buffer.putLong(entry.remainingMs);
+            buffer.putLong(entry.checkpointMs);
+            buffer.put((byte) (entry.isRunning ? 1 : 0));
+            putText(userId);
+            putText(sessionType);
+            writeRecord();
+            openStartTimeMs = entry.startTimeMs;
+        });
+    }
+    
+    /**
+     * Mark the session that started at startTimeMs as closed (in the background)
+     * 
+     * Does nothing if another session has been written since
+     * (nothing written yet = the record read back at launch).
+     */
+    public void close(long startTimeMs) {
+        writer.execute(() -> {
+            if (openStartTimeMs != -1 && openStartTimeMs != startTimeMs) {
+                return;
+            }
+            Arrays.fill(buffer.array(), (byte) 0);
+            buffer.clear();
+            buffer.putInt(MAGIC);
+            buffer.putInt(STATE_CLOSED);
+            writeRecord();
+            openStartTimeMs = -1;
+        });
+    }
+    
+    private void putText(byte[] text) {
+        buffer.put((byte) text.length);
+        buffer.put(text);
+    }
+    
+    private static String getText(ByteBuffer record) {
+        int length = record.get();
+        if (length < 0 || length > MAX_TEXT_BYTES) {
+            return null;
+        }
+        byte[] text = new byte[length];
+        record.get(text);
+        return new String(text, UTF_8);
+    }
+    
+    /**
+     * Add the CRC and overwrite the record in place (writer thread)
+     */
+    private void writeRecord() {
+        crc.reset();
+        crc.update(buffer.array(), 0, CRC_OFFSET);
+        buffer.putLong(CRC_OFFSET, crc.getValue());
+        buffer.clear();
+        try {
+            if (output == null) {
+                output = new RandomAccessFile(file, "rw");
+            }
+            // Surviving a process kill only needs the OS to have the bytes -
+            // no fsync, so checkpoints stay cheap
+            output.getChannel().write(buffer, 0);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write session journal", e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.smartlearn.app.timer;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.SystemClock;
+
+import com.smartlearn.app.database.SessionWriter;
+import com.smartlearn.app.models.FocusSession;
+
+import java.util.Date;
+
+/**
+ * TimerAlarmReceiver Class
+ * 
+ * Ends a Pomodoro phase at its deadline while the app is in the background.
+ * 
+ * Why an alarm?
+ * - Without a visible timer, TimerEngine stops ticking, so the CPU can
+ *   sleep for the whole 25 minutes
+ * - One alarm at the deadline wakes the app once to record the session
+ * 
+ * How it works:
+ * - schedule() sets an exact ELAPSED_REALTIME_WAKEUP alarm (same clock as
+ *   TimerEngine's deadline); if exact alarms are not allowed (Android 12+
+ *   setting) it falls back to an inexact one, and the session end time
+ *   is still the deadline
+ * - The alarm carries the session's details: if the process was killed in
+ *   the meantime, the session is recorded from them
+ * - cancel() is called on pause, reset and when the phase ends on screen
+ */
+public class TimerAlarmReceiver extends BroadcastReceiver {
+    
+    private static final String EXTRA_USER_ID = "user_id";
+    private static final String EXTRA_SESSION_TYPE = "session_type";
+    private static final String EXTRA_START_TIME = "start_time";
+    private static final String EXTRA_DURATION = "duration";
+    private static final String EXTRA_DEADLINE_ELAPSED = "deadline_elapsed";
+    
+    /**
+     * Wake up at deadlineElapsedMs (SystemClock.elapsedRealtime()) to finish the session
+     */
+    public static void schedule(Context context, FocusSession session, long durationMs,
+                                long deadlineElapsedMs) {
+        Intent intent = new Intent(context, TimerAlarmReceiver.class);
+        intent.putExtra(EXTRA_USER_ID, session.getUserId());
+        intent.putExtra(EXTRA_SESSION_TYPE, session.getSessionType());
+        intent.putExtra(EXTRA_START_TIME, session.getStartTime().getTime());
+        intent.putExtra(EXTRA_DURATION, durationMs);
+        intent.putExtra(EXTRA_DEADLINE_ELAPSED, deadlineElapsedMs);
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, 0, intent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S || alarmManager.canScheduleExactAlarms()) {
+            alarmManager.setExactAndAllowWhileIdle(
+                AlarmManager.ELAPSED_REALTIME_WAKEUP, deadlineElapsedMs, pendingIntent);
+        } else {
+            alarmManager.setAndAllowWhileIdle(
+                AlarmManager.ELAPSED_REALTIME_WAKEUP, deadlineElapsedMs, pendingIntent);
+        }
+    }
+    
+    /**
+     * Remove the pending alarm, if any
+     */
+    public static void cancel(Context context) {
+        Intent intent = new Intent(context, TimerAlarmReceiver.class);
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(context, 0, intent,
+            PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
+        if (pendingIntent != null) {
+            AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+            alarmManager.cancel(pendingIntent);
+            pendingIntent.cancel();
+        }
+    }
+    
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        long startTimeMs = intent.getLongExtra(EXTRA_START_TIME, 0);
+        
+        // Write now - the process may be stopped right after this broadcast
+        PendingResult pendingResult = goAsync();
+        SessionWriter sessionWriter = SessionWriter.getInstance(context);
+        
+        TimerEngine engine = TimerEngine.getInstance(context);
+        if (engine.onDeadlineAlarm(startTimeMs)) {
+            sessionWriter.flush(result -> pendingResult.finish());
+            return;
+        }
+        
+        // New process - the engine never saw this session, so record it here
+        FocusSession session = new FocusSession(
+            intent.getStringExtra(EXTRA_USER_ID),
+            new Date(startTimeMs),
+            intent.getStringExtra(EXTRA_SESSION_TYPE)
+        );
+        long lateMs = SystemClock.elapsedRealtime()
+            - intent.getLongExtra(EXTRA_DEADLINE_ELAPSED, 0);
+        session.setEndTime(new Date(System.currentTimeMillis() - Math.max(0, lateMs)));
+        session.setDuration(intent.getLongExtra(EXTRA_DURATION, 0));
+        session.setCompleted(true);
+        // write() rather than enqueue(): a full queue must not drop it
+        sessionWriter.write(session, result -> pendingResult.finish());
+    }
+}
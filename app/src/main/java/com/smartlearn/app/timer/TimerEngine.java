@@ -0,0 +1,343 @@
+package com.smartlearn.app.timer;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.MainThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.smartlearn.app.database.SessionWriter;
+import com.smartlearn.app.models.FocusSession;
+import com.smartlearn.app.utils.Constants;
+
+import java.util.Date;
+
+/**
+ * TimerEngine Class
+ * 
+ * App-wide Pomodoro timer. TimerFragment only renders its snapshots.
+ * 
+ * Why this class exists:
+ * - Timer state used to live in TimerFragment, which MainActivity
+ *   replaces when the user switches tabs - the running timer was lost
+ * - CountDownTimer counts its own ticks, so a busy main thread made it
+ *   drift behind real time
+ * 
+ * How it works:
+ * - A running phase is a deadline on SystemClock.elapsedRealtime()
+ *   (monotonic, keeps counting in deep sleep, not changed by the user's
+ *   clock). Remaining time is always deadline - now, never accumulated.
+ * - Paused phases just store the remaining time
+ * - getSnapshots() is LiveData: it only ticks (once per displayed second)
+ *   while someone observes it - in the background nothing ticks
+ * - One alarm at the deadline (TimerAlarmReceiver) finishes the phase
+ *   when no screen is showing the timer
+ * - A finished FOCUS/BREAK session is written through SessionWriter;
+ *   its journal entry is closed only once the session is in Room
+ * - The session in progress is checkpointed to a SessionJournal;
+ *   recoverFromJournal() (at app start) resumes it or closes it
+ * 
+ * Singleton pattern, like AppDatabase. Call all methods on the main thread.
+ */
+public class TimerEngine {
+    
+    // A paused session untouched for this long is closed on the next launch
+    private static final long ORPHAN_AFTER_MS = 12 * 60 * 60 * 1000L;
+    
+    // Retry a failed session write after this long, doubling up to the max
+    private static final long WRITE_RETRY_DELAY_MS = 5 * 1000;
+    private static final long WRITE_RETRY_MAX_DELAY_MS = 5 * 60 * 1000;
+    
+    private static TimerEngine instance;
+    
+    private final Context appContext;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final SessionWriter sessionWriter;
+    private final SessionJournal journal;
+    private final SnapshotLiveData snapshots = new SnapshotLiveData();
+    
+    private String sessionType = Constants.SESSION_TYPE_FOCUS;
+    private boolean isRunning = false;
+    private long deadlineElapsedMs; // When running
+    private long remainingMs = Constants.FOCUS_DURATION_MS; // When paused
+    private FocusSession currentSession;
+    // Start time of the last finished session (so a late alarm can't record it twice)
+    private long lastFinishedStartMs = -1;
+    private long lastCheckpointElapsedMs;
+    
+    private final Runnable tickRunnable = this::tick;
+    
+    public static synchronized TimerEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new TimerEngine(context.getApplicationContext());
+        }
+        return instance;
+    }
+    
+    private TimerEngine(Context appContext) {
+        this.appContext = appContext;
+        sessionWriter = SessionWriter.getInstance(appContext);
+        journal = new SessionJournal(appContext);
+        snapshots.setValue(snapshot(SystemClock.elapsedRealtime()));
+    }
+    
+    /**
+     * Timer state, updated every displayed second while observed
+     */
+    public LiveData<TimerSnapshot> getSnapshots() {
+        return snapshots;
+    }
+    
+    /**
+     * Start or resume the current phase
+     */
+    @MainThread
+    public void start(String userId) {
+        if (isRunning) {
+            return;
+        }
+        if (currentSession == null) {
+            // Starting fresh
+            currentSession = new FocusSession(userId, new Date(), sessionType);
+        }
+        
+        long nowElapsed = SystemClock.elapsedRealtime();
+        deadlineElapsedMs = nowElapsed + remainingMs;
+        isRunning = true;
+        TimerAlarmReceiver.schedule(appContext, currentSession, durationOf(sessionType),
+            deadlineElapsedMs);
+        checkpoint(nowElapsed);
+        publish(nowElapsed);
+    }
+    
+    /**
+     * Pause, keeping the remaining time
+     */
+    @MainThread
+    public void pause() {
+        if (!isRunning) {
+            return;
+        }
+        long nowElapsed = SystemClock.elapsedRealtime();
+        remainingMs = Math.max(0, deadlineElapsedMs - nowElapsed);
+        isRunning = false;
+        TimerAlarmReceiver.cancel(appContext);
+        checkpoint(nowElapsed);
+        publish(nowElapsed);
+    }
+    
+    /**
+     * Stop and go back to a fresh focus phase (the session is not saved)
+     */
+    @MainThread
+    public void reset() {
+        isRunning = false;
+        TimerAlarmReceiver.cancel(appContext);
+        if (currentSession != null) {
+            journal.close(currentSession.getStartTime().getTime());
+        }
+        sessionType = Constants.SESSION_TYPE_FOCUS;
+        remainingMs = Constants.FOCUS_DURATION_MS;
+        currentSession = null;
+        publish(SystemClock.elapsedRealtime());
+    }
+    
+    /**
+     * Called by TimerAlarmReceiver when a session's deadline alarm fires
+     * 
+     * @param sessionStartMs Start time of the session the alarm was set for
+     * @return false if this engine doesn't know the session (the process
+     *         was restarted) - the caller records it instead
+     */
+    @MainThread
+    public boolean onDeadlineAlarm(long sessionStartMs) {
+        if (currentSession != null && currentSession.getStartTime().getTime() == sessionStartMs) {
+            long nowElapsed = SystemClock.elapsedRealtime();
+            if (isRunning && nowElapsed >= deadlineElapsedMs) {
+                finishPhase(nowElapsed);
+                publish(nowElapsed);
+            }
+            return true;
+        }
+        // Already finished on screen, or replaced by a newer session
+        return sessionStartMs == lastFinishedStartMs || currentSession != null;
+    }
+    
+    /**
+     * Pick up the session that was in progress when the process died
+     * (called once from SmartLearnApplication.onCreate)
+     * 
+     * - Running, deadline still ahead: keeps running (alarm set again,
+     *   it is lost on reboot)
+     * - Running, deadline passed: recorded as completed at the deadline
+     * - Paused recently: restored as paused
+     * - Paused for longer than ORPHAN_AFTER_MS: closed as not completed,
+     *   with the time that was actually run
+     */
+    @MainThread
+    public void recoverFromJournal() {
+        SessionJournal.Entry entry = journal.read();
+        if (entry == null || currentSession != null || entry.sessionType == null) {
+            return;
+        }
+        
+        long nowElapsed = SystemClock.elapsedRealtime();
+        long nowMs = System.currentTimeMillis();
+        sessionType = entry.sessionType;
+        currentSession = new FocusSession(entry.userId, new Date(entry.startTimeMs), sessionType);
+        
+        if (entry.isRunning) {
+            // Move the deadline from the wall clock back onto elapsedRealtime
+            long deadlineMs = entry.checkpointMs + entry.remainingMs;
+            deadlineElapsedMs = nowElapsed + (deadlineMs - nowMs);
+            isRunning = true;
+            if (nowElapsed >= deadlineElapsedMs) {
+                finishPhase(nowElapsed);
+            } else {
+                TimerAlarmReceiver.schedule(appContext, currentSession, durationOf(sessionType),
+                    deadlineElapsedMs);
+            }
+        } else if (nowMs - entry.checkpointMs > ORPHAN_AFTER_MS) {
+            // Abandoned - keep the focus time, but not as a completed session
+            currentSession.setEndTime(new Date(entry.checkpointMs));
+            currentSession.setDuration(Math.max(0, entry.durationMs - entry.remainingMs));
+            currentSession.setCompleted(false);
+            recordAndClose(currentSession);
+            
+            sessionType = Constants.SESSION_TYPE_FOCUS;
+            remainingMs = Constants.FOCUS_DURATION_MS;
+            currentSession = null;
+        } else {
+            remainingMs = entry.remainingMs;
+        }
+        publish(nowElapsed);
+    }
+    
+    /**
+     * Save the session in progress to the journal
+     */
+    private void checkpoint(long nowElapsed) {
+        if (currentSession == null) {
+            return;
+        }
+        long remaining = isRunning ? Math.max(0, deadlineElapsedMs - nowElapsed) : remainingMs;
+        journal.write(new SessionJournal.Entry(
+            currentSession.getUserId(),
+            sessionType,
+            currentSession.getStartTime().getTime(),
+            durationOf(sessionType),
+            remaining,
+            System.currentTimeMillis(),
+            isRunning
+        ));
+        lastCheckpointElapsedMs = nowElapsed;
+    }
+    
+    /**
+     * Write a finished session and close its journal entry once it is in Room
+     */
+    private void recordAndClose(FocusSession session) {
+        long startTimeMs = session.getStartTime().getTime();
+        // Write now rather than after the batching delay, and past a full
+        // queue - until it is in Room the journal is the only copy
+        sessionWriter.write(session,
+            result -> closeWhenWritten(startTimeMs, result, WRITE_RETRY_DELAY_MS));
+    }
+    
+    /**
+     * Close the journal entry if the write succeeded, otherwise try again later
+     * 
+     * A failed session stays in SessionWriter's batch, so a later flush
+     * writes it. The journal stays open until then: if the process dies
+     * first, recoverFromJournal() records the session on the next launch.
+     */
+    private void closeWhenWritten(long startTimeMs, SessionWriter.FlushResult result,
+                                  long retryDelayMs) {
+        if (result.isSuccessful()) {
+            journal.close(startTimeMs);
+            return;
+        }
+        long nextDelayMs = Math.min(retryDelayMs * 2, WRITE_RETRY_MAX_DELAY_MS);
+        mainHandler.postDelayed(() -> sessionWriter.flush(
+            next -> closeWhenWritten(startTimeMs, next, nextDelayMs)), retryDelayMs);
+    }
+    
+    private void finishPhase(long nowElapsed) {
+        boolean isFocus = Constants.SESSION_TYPE_FOCUS.equals(sessionType);
+        
+        if (currentSession != null) {
+            // End time is the deadline, even if we noticed it late
+            long lateMs = nowElapsed - deadlineElapsedMs;
+            currentSession.setEndTime(new Date(System.currentTimeMillis() - lateMs));
+            currentSession.setDuration(durationOf(sessionType));
+            currentSession.setCompleted(true);
+            
+            recordAndClose(currentSession);
+            lastFinishedStartMs = currentSession.getStartTime().getTime();
+        }
+        TimerAlarmReceiver.cancel(appContext);
+        
+        // Switch to break/focus
+        sessionType = isFocus ? Constants.SESSION_TYPE_BREAK : Constants.SESSION_TYPE_FOCUS;
+        remainingMs = durationOf(sessionType);
+        isRunning = false;
+        currentSession = null;
+    }
+    
+    private void tick() {
+        long nowElapsed = SystemClock.elapsedRealtime();
+        if (isRunning && nowElapsed >= deadlineElapsedMs) {
+            finishPhase(nowElapsed);
+        }
+        publish(nowElapsed);
+    }
+    
+    private void publish(long nowElapsed) {
+        TimerSnapshot snapshot = snapshot(nowElapsed);
+        snapshots.setValue(snapshot);
+        
+        if (snapshot.isRunning
+                && nowElapsed - lastCheckpointElapsedMs >= SessionJournal.CHECKPOINT_INTERVAL_MS) {
+            checkpoint(nowElapsed);
+        }
+        
+        mainHandler.removeCallbacks(tickRunnable);
+        if (snapshot.isRunning && snapshots.hasActiveObservers()) {
+            // Next tick when the displayed second changes
+            long delay = snapshot.remainingMs % 1000;
+            mainHandler.postDelayed(tickRunnable, delay == 0 ? 1000 : delay);
+        }
+    }
+    
+    private TimerSnapshot snapshot(long nowElapsed) {
+        long remaining = isRunning ? Math.max(0, deadlineElapsedMs - nowElapsed) : remainingMs;
+        return new TimerSnapshot(sessionType, isRunning, currentSession != null,
+            remaining, durationOf(sessionType));
+    }
+    
+    private static long durationOf(String sessionType) {
+        return Constants.SESSION_TYPE_FOCUS.equals(sessionType)
+            ? Constants.FOCUS_DURATION_MS
+            : Constants.BREAK_DURATION_MS;
+    }
+    
+    /**
+     * LiveData that ticks only while observed
+     */
+    private class SnapshotLiveData extends MutableLiveData<TimerSnapshot> {
+        
+        @Override
+        protected void onActive() {
+            // Catch up right away (time kept passing while nobody watched)
+            tick();
+        }
+        
+        @Override
+        protected void onInactive() {
+            mainHandler.removeCallbacks(tickRunnable);
+        }
+    }
+}
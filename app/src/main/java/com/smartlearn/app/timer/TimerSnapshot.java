@@ -0,0 +1,48 @@
+package com.smartlearn.app.timer;
+
+import com.smartlearn.app.utils.Constants;
+
+/**
+ * TimerSnapshot Class
+ * 
+ * What the Pomodoro timer looks like at one moment.
+ * 
+ * Why snapshots?
+ * - Immutable, so TimerEngine can hand them to any observer safely
+ * - The UI only renders what it gets; it keeps no timer state itself
+ */
+public final class TimerSnapshot {
+    
+    public final String sessionType; // FOCUS or BREAK
+    public final boolean isRunning;
+    public final boolean hasSession; // Started and not finished/reset
+    public final long remainingMs;
+    public final long durationMs; // Full length of this phase
+    
+    public TimerSnapshot(String sessionType, boolean isRunning, boolean hasSession,
+                         long remainingMs, long durationMs) {
+        this.sessionType = sessionType;
+        this.isRunning = isRunning;
+        this.hasSession = hasSession;
+        this.remainingMs = remainingMs;
+        this.durationMs = durationMs;
+    }
+    
+    public boolean isFocus() {
+        return Constants.SESSION_TYPE_FOCUS.equals(sessionType);
+    }
+    
+    /**
+     * Seconds left, rounded up (shows 25:00 at the start and 00:01 until the end)
+     */
+    public long getRemainingSeconds() {
+        return (remainingMs + 999) / 1000;
+    }
+    
+    /**
+     * Progress through this phase, 0 to 1
+     */
+    public float getProgress() {
+        return durationMs <= 0 ? 0f : 1f - (float) remainingMs / durationMs;
+    }
+}
@@ -3,6 +3,10 @@ package com.smartlearn.app.ui.engagement;
 import android.Manifest;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Size;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -15,6 +19,9 @@ import androidx.annotation.Nullable;
 import androidx.camera.core.CameraSelector;
 import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.Preview;
+import androidx.camera.core.resolutionselector.AspectRatioStrategy;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
 import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
 import androidx.core.app.ActivityCompat;
@@ -22,13 +29,17 @@ import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.mlkit.vision.common.InputImage;
 import com.smartlearn.app.R;
+import com.smartlearn.app.firebase.FirebaseAuthHelper;
 import com.smartlearn.app.ml.EngagementAnalyzer;
+import com.smartlearn.app.ml.EngagementEngine;
+import com.smartlearn.app.ml.EngagementMetrics;
+import com.smartlearn.app.ml.EngagementState;
+import com.smartlearn.app.ml.FramePipeline;
+import com.smartlearn.app.ml.WorkloadScheduler;
 import com.smartlearn.app.utils.Constants;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * EngagementFragment
@@ -36,9 +47,10 @@ import java.util.concurrent.Executors;
  * Module 2: AI-Assisted Engagement Analyzer
  * 
  * Features:
- * - Camera preview using CameraX
+ * - Headless analysis with CameraX (preview only when the user asks for it)
  * - ML Kit face detection
  * - Real-time engagement analysis
+ * - Engagement timeline saved locally (Room) for session focus scores
  * - Privacy-first (camera off by default, opt-in)
  * 
  * Privacy Rules:
@@ -49,16 +61,65 @@ import java.util.concurrent.Executors;
  */
 public class EngagementFragment extends Fragment {
     
+    // Small frames are enough for face detection and cheaper to produce
+    private static final Size ANALYSIS_RESOLUTION = new Size(480, 360);
+    
     private PreviewView previewView;
     private TextView textViewEngagement;
     private Button buttonEnableCamera;
     private Button buttonDisableCamera;
+    private Button buttonTogglePreview;
     
     private ProcessCameraProvider cameraProvider;
+    // Bound only while the user wants to see the camera feed
+    private Preview preview;
+    private boolean isPreviewShown = false;
+    private EngagementEngine engagementEngine;
     private EngagementAnalyzer engagementAnalyzer;
+    private FramePipeline framePipeline;
     private ExecutorService cameraExecutor;
     private boolean isCameraEnabled = false;
     
+    private WorkloadScheduler workloadScheduler;
+    
+    // UI text for each EngagementState code, built once
+    private final String[] statusText = new String[EngagementState.COUNT];
+    private static final String[] SUGGESTIONS = {
+        "",                              // FOCUSED - no suggestion needed
+        "You seem tired. Take a break!", // TIRED
+        "Stay focused! You can do it!"   // DISTRACTED
+    };
+    
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    
+    // Latest state from the camera thread, applied by applyStateRunnable
+    private volatile int pendingState = EngagementState.NONE;
+    // When pendingState was posted (for the dispatch lag metric)
+    private volatile long pendingPostedAtMs;
+    private final Runnable applyStateRunnable = this::applyEngagementState;
+    
+    // Registered once - the per-frame path allocates nothing in our code
+    private final EngagementAnalyzer.EngagementListener engagementListener =
+        new EngagementAnalyzer.EngagementListener() {
+            @Override
+            public void onEngagementState(int engagementState) {
+                // Called only when the debounced state changes
+                pendingState = engagementState;
+                pendingPostedAtMs = SystemClock.elapsedRealtime();
+                mainHandler.post(applyStateRunnable);
+            }
+            
+            @Override
+            public void onEngagementError(Exception error) {
+                String message = error != null ? error.getMessage() : null;
+                mainHandler.post(() -> {
+                    if (textViewEngagement != null) {
+                        textViewEngagement.setText("Error: " + message);
+                    }
+                });
+            }
+        };
+    
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
@@ -68,13 +129,27 @@ public class EngagementFragment extends Fragment {
         textViewEngagement = view.findViewById(R.id.textViewEngagement);
         buttonEnableCamera = view.findViewById(R.id.buttonEnableCamera);
         buttonDisableCamera = view.findViewById(R.id.buttonDisableCamera);
+        buttonTogglePreview = view.findViewById(R.id.buttonTogglePreview);
+        
+        for (int state = 0; state < EngagementState.COUNT; state++) {
+            statusText[state] = "Status: " + EngagementState.toLabel(state);
+        }
+        
+        // Detector, analyzer and camera thread are shared app-wide so they
+        // don't have to be created (and the model loaded) on every visit
+        engagementEngine = EngagementEngine.getInstance(requireContext());
+        engagementAnalyzer = engagementEngine.getEngagementAnalyzer();
+        cameraExecutor = engagementEngine.getCameraExecutor();
+        engagementAnalyzer.setEngagementListener(engagementListener);
         
-        engagementAnalyzer = new EngagementAnalyzer();
-        cameraExecutor = Executors.newSingleThreadExecutor();
+        // Less work when the phone is hot or low on battery
+        workloadScheduler = engagementEngine.getWorkloadScheduler();
+        workloadScheduler.setListener(this::onWorkloadLevelChanged);
         
         // Initially hide camera preview
         previewView.setVisibility(View.GONE);
         buttonDisableCamera.setEnabled(false);
+        buttonTogglePreview.setEnabled(false);
         
         buttonEnableCamera.setOnClickListener(v -> {
             if (checkCameraPermission()) {
@@ -86,9 +161,35 @@ public class EngagementFragment extends Fragment {
         
         buttonDisableCamera.setOnClickListener(v -> disableCamera());
         
+        buttonTogglePreview.setOnClickListener(v -> {
+            if (isPreviewShown) {
+                hidePreview();
+            } else {
+                showPreview();
+            }
+        });
+        
         return view;
     }
     
+    /**
+     * Tell the user when analysis is paused to protect the phone
+     * (called on the main thread)
+     */
+    private void onWorkloadLevelChanged(int level) {
+        if (!isCameraEnabled || textViewEngagement == null) {
+            return;
+        }
+        if (level == WorkloadScheduler.LEVEL_PAUSED) {
+            textViewEngagement.setText(R.string.engagement_paused);
+        } else {
+            int state = pendingState;
+            textViewEngagement.setText(state != EngagementState.NONE
+                ? statusText[state]
+                : getString(R.string.engagement_resumed));
+        }
+    }
+    
     /**
      * Check if camera permission is granted
      */
@@ -118,19 +219,26 @@ public class EngagementFragment extends Fragment {
             return;
         }
         
+        // Remember that the camera is used, so next launch warms up early
+        EngagementEngine.setPrewarmEnabled(requireContext(), true);
+        
+        // Already resolved if the engine was warmed up
         ListenableFuture<ProcessCameraProvider> cameraProviderFuture = 
-            ProcessCameraProvider.getInstance(requireContext());
+            engagementEngine.getCameraProviderFuture();
         
         cameraProviderFuture.addListener(() -> {
             try {
                 ProcessCameraProvider provider = cameraProviderFuture.get();
+                engagementEngine.resetSession();
                 bindCameraUseCases(provider);
                 isCameraEnabled = true;
+                engagementEngine.getSampleRecorder().start(getUserId());
+                workloadScheduler.start();
                 
-                // Update UI
-                previewView.setVisibility(View.VISIBLE);
+                // Update UI - analysis runs headless until preview is requested
                 buttonEnableCamera.setEnabled(false);
                 buttonDisableCamera.setEnabled(true);
+                buttonTogglePreview.setEnabled(true);
                 
             } catch (Exception e) {
                 Toast.makeText(getContext(), "Camera error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
@@ -139,51 +247,32 @@ public class EngagementFragment extends Fragment {
     }
     
     /**
-     * Bind camera use cases (Preview + ImageAnalysis)
+     * Bind the ImageAnalysis use case (headless - no Preview)
+     * 
+     * Why headless?
+     * - Most students never look at their own camera feed
+     * - Rendering a live preview is a large part of the camera's power use
+     * - The preview can still be turned on with showPreview()
      */
     private void bindCameraUseCases(ProcessCameraProvider provider) {
-        // Preview use case - shows camera feed
-        Preview preview = new Preview.Builder().build();
-        preview.setSurfaceProvider(previewView.getSurfaceProvider());
+        // Ask for small 4:3 frames (closest lower size if not supported)
+        ResolutionSelector resolutionSelector = new ResolutionSelector.Builder()
+            .setAspectRatioStrategy(AspectRatioStrategy.RATIO_4_3_FALLBACK_AUTO_STRATEGY)
+            .setResolutionStrategy(new ResolutionStrategy(
+                ANALYSIS_RESOLUTION,
+                ResolutionStrategy.FALLBACK_RULE_CLOSEST_LOWER_THEN_HIGHER
+            ))
+            .build();
         
         // ImageAnalysis use case - processes frames for ML Kit
-        ImageAnalysis imageAnalysis = new ImageAnalysis.Builder()
-            .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+        // FramePipeline holds each frame until detection finishes and drops
+        // frames while the detector is busy
+        framePipeline = new FramePipeline(engagementAnalyzer);
+        ImageAnalysis imageAnalysis = framePipeline.configure(new ImageAnalysis.Builder())
+            .setResolutionSelector(resolutionSelector)
             .build();
         
-        imageAnalysis.setAnalyzer(cameraExecutor, imageProxy -> {
-            // Convert ImageProxy to InputImage for ML Kit
-            InputImage image = InputImage.fromMediaImage(
-                imageProxy.getImage(),
-                imageProxy.getImageInfo().getRotationDegrees()
-            );
-            
-            // Analyze engagement
-            engagementAnalyzer.analyzeEngagement(image, new EngagementAnalyzer.EngagementCallback() {
-                @Override
-                public void onEngagementDetected(String engagementState) {
-                    // Update UI on main thread
-                    requireActivity().runOnUiThread(() -> {
-                        textViewEngagement.setText("Status: " + engagementState);
-                        
-                        // Show friendly suggestions
-                        String suggestion = getSuggestion(engagementState);
-                        if (!suggestion.isEmpty()) {
-                            Toast.makeText(getContext(), suggestion, Toast.LENGTH_SHORT).show();
-                        }
-                    });
-                }
-                
-                @Override
-                public void onError(String error) {
-                    requireActivity().runOnUiThread(() -> {
-                        textViewEngagement.setText("Error: " + error);
-                    });
-                }
-            });
-            
-            imageProxy.close();
-        });
+        imageAnalysis.setAnalyzer(cameraExecutor, framePipeline);
         
         // Select front camera
         CameraSelector cameraSelector = CameraSelector.DEFAULT_FRONT_CAMERA;
@@ -193,42 +282,94 @@ public class EngagementFragment extends Fragment {
         provider.bindToLifecycle(
             this,
             cameraSelector,
-            preview,
             imageAnalysis
         );
         
         cameraProvider = provider;
     }
     
+    /**
+     * Show the camera feed (binds a Preview next to the running analysis)
+     */
+    private void showPreview() {
+        if (cameraProvider == null || isPreviewShown) {
+            return;
+        }
+        if (preview == null) {
+            preview = new Preview.Builder().build();
+        }
+        preview.setSurfaceProvider(previewView.getSurfaceProvider());
+        cameraProvider.bindToLifecycle(this, CameraSelector.DEFAULT_FRONT_CAMERA, preview);
+        
+        isPreviewShown = true;
+        previewView.setVisibility(View.VISIBLE);
+        buttonTogglePreview.setText(R.string.hide_preview);
+    }
+    
+    /**
+     * Stop rendering the camera feed; analysis keeps running
+     */
+    private void hidePreview() {
+        if (cameraProvider != null && preview != null) {
+            cameraProvider.unbind(preview);
+        }
+        
+        isPreviewShown = false;
+        previewView.setVisibility(View.GONE);
+        buttonTogglePreview.setText(R.string.show_preview);
+    }
+    
     /**
      * Disable camera
      */
     private void disableCamera() {
+        hidePreview();
         if (cameraProvider != null) {
             cameraProvider.unbindAll();
             cameraProvider = null;
         }
+        if (isCameraEnabled) {
+            // Write the samples still in memory
+            engagementEngine.getSampleRecorder().stop();
+            workloadScheduler.stop();
+        }
         
         isCameraEnabled = false;
-        previewView.setVisibility(View.GONE);
         buttonEnableCamera.setEnabled(true);
         buttonDisableCamera.setEnabled(false);
+        buttonTogglePreview.setEnabled(false);
         textViewEngagement.setText("Camera disabled");
     }
     
     /**
-     * Get friendly suggestion based on engagement state
+     * Firebase user ID, or "anonymous" when not signed in
+     */
+    private String getUserId() {
+        FirebaseAuthHelper authHelper = new FirebaseAuthHelper();
+        return authHelper.getCurrentUser() != null
+            ? authHelper.getCurrentUser().getUid()
+            : "anonymous";
+    }
+    
+    /**
+     * Show the latest engagement state (runs on the main thread)
      */
-    private String getSuggestion(String engagementState) {
-        switch (engagementState) {
-            case Constants.ENGAGEMENT_TIRED:
-                return "You seem tired. Take a break!";
-            case Constants.ENGAGEMENT_DISTRACTED:
-                return "Stay focused! You can do it!";
-            case Constants.ENGAGEMENT_FOCUSED:
-                return ""; // No suggestion needed when focused
-            default:
-                return "";
+    private void applyEngagementState() {
+        EngagementMetrics metrics = engagementAnalyzer.getMetrics();
+        if (metrics != null) {
+            metrics.onDispatchLag(SystemClock.elapsedRealtime() - pendingPostedAtMs);
+        }
+        
+        int state = pendingState;
+        if (state == EngagementState.NONE || textViewEngagement == null || !isCameraEnabled) {
+            return;
+        }
+        textViewEngagement.setText(statusText[state]);
+        
+        // Show friendly suggestions
+        String suggestion = SUGGESTIONS[state];
+        if (!suggestion.isEmpty()) {
+            Toast.makeText(getContext(), suggestion, Toast.LENGTH_SHORT).show();
         }
     }
     
@@ -248,11 +389,11 @@ public class EngagementFragment extends Fragment {
     public void onDestroyView() {
         super.onDestroyView();
         disableCamera();
+        mainHandler.removeCallbacksAndMessages(null);
+        workloadScheduler.setListener(null);
+        // The analyzer and camera thread belong to EngagementEngine - keep them
         if (engagementAnalyzer != null) {
-            engagementAnalyzer.release();
-        }
-        if (cameraExecutor != null) {
-            cameraExecutor.shutdown();
+            engagementAnalyzer.setEngagementListener(null);
         }
     }
 }
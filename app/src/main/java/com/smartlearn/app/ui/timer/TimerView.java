@@ -0,0 +1,191 @@
+package com.smartlearn.app.ui.timer;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.smartlearn.app.R;
+import com.smartlearn.app.timer.TimerSnapshot;
+
+/**
+ * TimerView Class
+ * 
+ * Draws the Pomodoro time (MM:SS), the session type and a progress ring.
+ * 
+ * Why a custom view?
+ * - A TextView updated every second needs String.format (a Formatter and
+ *   new Strings each time) and text changes can trigger a layout pass
+ * - This view keeps the digits in a char array and draws them straight
+ *   onto the canvas - nothing is allocated per second
+ * - Its size never depends on the time shown, so it never asks for a layout
+ * - It is invalidated at most once per update, and only if a digit changed
+ *   or the ring's arc moved by a visible step. With hardware acceleration
+ *   the whole view is redrawn (dirty rectangles are ignored), which is
+ *   cheap here: one ring and a few glyphs.
+ */
+public class TimerView extends View {
+    
+    // "MM:SS" - digits at 0, 1, 3, 4
+    private static final int TIME_LENGTH = 5;
+    // Ring moves in steps of this many degrees (25 min = one step every ~2 s)
+    private static final float RING_STEP_DEGREES = 0.5f;
+    
+    private final char[] timeChars = {'2', '5', ':', '0', '0'};
+    private final float[] cellLeft = new float[TIME_LENGTH];
+    
+    private final Paint digitPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint trackPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint ringPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF ringBounds = new RectF();
+    
+    private final String focusLabel;
+    private final String breakLabel;
+    private final int focusColor;
+    private final int breakColor;
+    
+    private boolean isFocus = true;
+    private int ringSteps; // Progress in RING_STEP_DEGREES steps
+    
+    // Layout of the text, computed in onSizeChanged
+    private float cellWidth;
+    private float digitBaseline;
+    private float digitBottom;
+    private float labelBaseline;
+    
+    public TimerView(Context context) {
+        this(context, null);
+    }
+    
+    public TimerView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        
+        focusLabel = context.getString(R.string.focus_time);
+        breakLabel = context.getString(R.string.break_time);
+        focusColor = ContextCompat.getColor(context, R.color.focus_green);
+        breakColor = ContextCompat.getColor(context, R.color.tired_orange);
+        
+        digitPaint.setTextSize(sp(56));
+        digitPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        digitPaint.setTextAlign(Paint.Align.CENTER);
+        
+        labelPaint.setTextSize(sp(18));
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+        labelPaint.setColor(0xFF757575);
+        
+        trackPaint.setStyle(Paint.Style.STROKE);
+        trackPaint.setStrokeWidth(dp(8));
+        trackPaint.setColor(0xFFE0E0E0);
+        
+        ringPaint.setStyle(Paint.Style.STROKE);
+        ringPaint.setStrokeWidth(dp(8));
+        ringPaint.setStrokeCap(Paint.Cap.ROUND);
+        ringPaint.setColor(focusColor);
+    }
+    
+    /**
+     * Show a timer snapshot (call once per TimerEngine update)
+     */
+    public void render(TimerSnapshot snapshot) {
+        long remainingSeconds = snapshot.getRemainingSeconds();
+        int minutes = (int) Math.min(99, remainingSeconds / 60);
+        int seconds = (int) (remainingSeconds % 60);
+        
+        boolean changed = setDigit(0, (char) ('0' + minutes / 10));
+        changed |= setDigit(1, (char) ('0' + minutes % 10));
+        changed |= setDigit(3, (char) ('0' + seconds / 10));
+        changed |= setDigit(4, (char) ('0' + seconds % 10));
+        
+        int steps = (int) (snapshot.getProgress() * 360f / RING_STEP_DEGREES);
+        boolean focus = snapshot.isFocus();
+        if (steps != ringSteps || focus != isFocus) {
+            ringSteps = steps;
+            isFocus = focus;
+            ringPaint.setColor(focus ? focusColor : breakColor);
+            changed = true;
+        }
+        
+        if (changed) {
+            invalidate();
+        }
+    }
+    
+    /**
+     * @return true if the digit changed
+     */
+    private boolean setDigit(int index, char digit) {
+        if (timeChars[index] == digit) {
+            return false;
+        }
+        timeChars[index] = digit;
+        return true;
+    }
+    
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        // Square, big enough for the digits inside the ring
+        int desired = (int) dp(240);
+        int width = resolveSize(desired, widthMeasureSpec);
+        int height = resolveSize(desired, heightMeasureSpec);
+        int size = Math.min(width, height);
+        setMeasuredDimension(size, size);
+    }
+    
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        
+        float inset = ringPaint.getStrokeWidth() / 2 + dp(2);
+        ringBounds.set(inset, inset, width - inset, height - inset);
+        
+        // Every character gets a cell as wide as the widest digit,
+        // so the time doesn't jiggle as digits change
+        cellWidth = 0;
+        for (char c = '0'; c <= '9'; c++) {
+            cellWidth = Math.max(cellWidth, digitPaint.measureText(String.valueOf(c)));
+        }
+        float left = (width - cellWidth * TIME_LENGTH) / 2f;
+        for (int i = 0; i < TIME_LENGTH; i++) {
+            cellLeft[i] = left + i * cellWidth;
+        }
+        
+        Paint.FontMetrics metrics = digitPaint.getFontMetrics();
+        digitBaseline = height / 2f;
+        digitBottom = digitBaseline + metrics.descent;
+        labelBaseline = digitBottom - labelPaint.getFontMetrics().ascent;
+    }
+    
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        
+        // Ring: grey track, colored arc from 12 o'clock
+        canvas.drawArc(ringBounds, 0, 360, false, trackPaint);
+        canvas.drawArc(ringBounds, -90, ringSteps * RING_STEP_DEGREES, false, ringPaint);
+        
+        // Time: one character per cell, straight from the char array
+        for (int i = 0; i < TIME_LENGTH; i++) {
+            canvas.drawText(timeChars, i, 1, cellLeft[i] + cellWidth / 2f, digitBaseline, digitPaint);
+        }
+        
+        canvas.drawText(isFocus ? focusLabel : breakLabel, getWidth() / 2f, labelBaseline, labelPaint);
+    }
+    
+    private float dp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value,
+            getResources().getDisplayMetrics());
+    }
+    
+    private float sp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, value,
+            getResources().getDisplayMetrics());
+    }
+}
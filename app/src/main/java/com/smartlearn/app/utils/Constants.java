@@ -22,6 +22,9 @@ public class Constants {
     public static final String SESSION_TYPE_FOCUS = "FOCUS";
     public static final String SESSION_TYPE_BREAK = "BREAK";
     
+    // Raw sessions older than this are folded into daily rollups
+    public static final int SESSION_RETENTION_DAYS = 90;
+    
     // Engagement States (from ML Kit analysis)
     public static final String ENGAGEMENT_FOCUSED = "FOCUSED";
     public static final String ENGAGEMENT_TIRED = "TIRED";
@@ -30,8 +33,13 @@ public class Constants {
     // Camera Permission
     public static final int CAMERA_PERMISSION_REQUEST_CODE = 100;
     
+    // SharedPreferences file name
+    public static final String PREFS_NAME = "smartlearn_prefs";
+    
     // SharedPreferences Keys (for storing simple data locally)
     public static final String PREF_USER_ID = "user_id";
     public static final String PREF_USER_NAME = "user_name";
     public static final String PREF_USER_EMAIL = "user_email";
+    public static final String PREF_ENGAGEMENT_PREWARM = "engagement_prewarm";
+    public static final String PREF_LAST_COMPACTION = "last_session_compaction";
 }
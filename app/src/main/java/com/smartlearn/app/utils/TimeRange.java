@@ -0,0 +1,84 @@
+package com.smartlearn.app.utils;
+
+import java.util.Calendar;
+
+/**
+ * TimeRange Class
+ * 
+ * A [fromMs, toMs) window in epoch milliseconds, for the range queries
+ * in FocusSessionDao.
+ * 
+ * Why half-open [from, to)?
+ * - A session starting exactly at midnight belongs to the new day only
+ * - Consecutive ranges (this week, next week) never overlap or leave gaps
+ * 
+ * today(), thisWeek() and thisMonth() use the device's local time zone
+ * and first day of the week.
+ */
+public final class TimeRange {
+    
+    public final long fromMs; // inclusive
+    public final long toMs; // exclusive
+    
+    public TimeRange(long fromMs, long toMs) {
+        if (toMs < fromMs) {
+            throw new IllegalArgumentException("toMs must not be before fromMs");
+        }
+        this.fromMs = fromMs;
+        this.toMs = toMs;
+    }
+    
+    /**
+     * Custom range
+     */
+    public static TimeRange of(long fromMs, long toMs) {
+        return new TimeRange(fromMs, toMs);
+    }
+    
+    /**
+     * Local midnight today until local midnight tomorrow
+     */
+    public static TimeRange today(long nowMs) {
+        Calendar start = startOfDay(nowMs);
+        Calendar end = (Calendar) start.clone();
+        end.add(Calendar.DAY_OF_MONTH, 1);
+        return new TimeRange(start.getTimeInMillis(), end.getTimeInMillis());
+    }
+    
+    /**
+     * Start of this week (locale's first day) until the start of next week
+     */
+    public static TimeRange thisWeek(long nowMs) {
+        Calendar start = startOfDay(nowMs);
+        int daysIntoWeek = (start.get(Calendar.DAY_OF_WEEK) - start.getFirstDayOfWeek() + 7) % 7;
+        start.add(Calendar.DAY_OF_MONTH, -daysIntoWeek);
+        Calendar end = (Calendar) start.clone();
+        end.add(Calendar.WEEK_OF_YEAR, 1);
+        return new TimeRange(start.getTimeInMillis(), end.getTimeInMillis());
+    }
+    
+    /**
+     * First day of this month until the first day of next month
+     */
+    public static TimeRange thisMonth(long nowMs) {
+        Calendar start = startOfDay(nowMs);
+        start.set(Calendar.DAY_OF_MONTH, 1);
+        Calendar end = (Calendar) start.clone();
+        end.add(Calendar.MONTH, 1);
+        return new TimeRange(start.getTimeInMillis(), end.getTimeInMillis());
+    }
+    
+    public boolean contains(long timeMs) {
+        return timeMs >= fromMs && timeMs < toMs;
+    }
+    
+    private static Calendar startOfDay(long timeMs) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(timeMs);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar;
+    }
+}
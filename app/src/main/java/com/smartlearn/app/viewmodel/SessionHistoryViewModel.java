@@ -0,0 +1,76 @@
+package com.smartlearn.app.viewmodel;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.smartlearn.app.database.AppDatabase;
+import com.smartlearn.app.database.FocusSessionDao;
+import com.smartlearn.app.database.FocusSessionPagingSource;
+import com.smartlearn.app.database.SessionCursor;
+import com.smartlearn.app.models.FocusSession;
+
+import java.util.concurrent.Executors;
+
+/**
+ * SessionHistoryViewModel
+ * 
+ * Provides a user's focus session history page by page (Paging 3).
+ * 
+ * Why paging?
+ * - Users with years of sessions would otherwise load every row
+ *   before the history could be shown
+ * - Only the pages near the visible rows are kept in memory
+ *   (PagingConfig maxSize); the first page is one index lookup
+ * 
+ * Use with a PagingDataAdapter: observe getSessionHistory() and pass
+ * each PagingData to adapter.submitData(getLifecycle(), data).
+ */
+public class SessionHistoryViewModel extends AndroidViewModel {
+    
+    private static final int PAGE_SIZE = 30;
+    private static final int PREFETCH_DISTANCE = 10;
+    private static final int MAX_SIZE = PAGE_SIZE * 5;
+    
+    private final FocusSessionDao sessionDao;
+    private final ListeningExecutorService queryExecutor =
+        MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+    
+    private LiveData<PagingData<FocusSession>> sessionHistory;
+    private String historyUserId;
+    
+    public SessionHistoryViewModel(@NonNull Application application) {
+        super(application);
+        sessionDao = AppDatabase.getInstance(application).focusSessionDao();
+    }
+    
+    /**
+     * Paged history of a user, newest first
+     * (cached - the same LiveData survives screen rotation)
+     */
+    public LiveData<PagingData<FocusSession>> getSessionHistory(String userId) {
+        if (sessionHistory == null || !userId.equals(historyUserId)) {
+            historyUserId = userId;
+            Pager<SessionCursor, FocusSession> pager = new Pager<>(
+                new PagingConfig(PAGE_SIZE, PREFETCH_DISTANCE, false, PAGE_SIZE, MAX_SIZE),
+                () -> new FocusSessionPagingSource(sessionDao, userId, queryExecutor)
+            );
+            sessionHistory = PagingLiveData.cachedIn(PagingLiveData.getLiveData(pager), this);
+        }
+        return sessionHistory;
+    }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        queryExecutor.shutdown();
+    }
+}
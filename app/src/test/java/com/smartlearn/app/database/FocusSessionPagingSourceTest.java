@@ -0,0 +1,117 @@
+package com.smartlearn.app.database;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.paging.PagingSource;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.smartlearn.app.models.FocusSession;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * FocusSessionPagingSource keys, against an in-memory AppDatabase
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class FocusSessionPagingSourceTest {
+    
+    private static final String USER = "user-a";
+    private static final int PAGE = 10;
+    private static final int SESSIONS = 3 * PAGE;
+    
+    private AppDatabase database;
+    private FocusSessionPagingSource source;
+    // Ids in history order (newest first)
+    private final List<Long> history = new ArrayList<>();
+    
+    @Before
+    public void setUp() {
+        database = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(),
+                AppDatabase.class)
+            .allowMainThreadQueries()
+            .build();
+        FocusSessionDao dao = database.focusSessionDao();
+        
+        List<FocusSession> sessions = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            // Pairs share a startTime, so page edges fall on ties too
+            FocusSession session = new FocusSession(USER, new Date(1_000_000L + (i / 2) * 1000L), "FOCUS");
+            session.setDuration(1000);
+            sessions.add(session);
+        }
+        List<Long> ids = dao.insertSessions(sessions);
+        for (int i = SESSIONS - 1; i >= 0; i--) {
+            history.add(ids.get(i));
+        }
+        // Ties are ordered by id, newest (largest) first - already the case
+        
+        source = new FocusSessionPagingSource(dao, USER, MoreExecutors.newDirectExecutorService());
+    }
+    
+    @After
+    public void tearDown() {
+        database.close();
+    }
+    
+    @Test
+    public void appendWalksTheWholeHistory() throws Exception {
+        List<Long> seen = new ArrayList<>();
+        PagingSource.LoadResult.Page<SessionCursor, FocusSession> page =
+            load(new PagingSource.LoadParams.Refresh<>(null, PAGE, false));
+        seen.addAll(ids(page));
+        while (page.getNextKey() != null) {
+            page = load(new PagingSource.LoadParams.Append<>(page.getNextKey(), PAGE, false));
+            seen.addAll(ids(page));
+        }
+        assertEquals(history, seen);
+    }
+    
+    @Test
+    public void reappendAfterPrependLosesNoRow() throws Exception {
+        // Scroll down three pages
+        PagingSource.LoadResult.Page<SessionCursor, FocusSession> first =
+            load(new PagingSource.LoadParams.Refresh<>(null, PAGE, false));
+        PagingSource.LoadResult.Page<SessionCursor, FocusSession> second =
+            load(new PagingSource.LoadParams.Append<>(first.getNextKey(), PAGE, false));
+        PagingSource.LoadResult.Page<SessionCursor, FocusSession> third =
+            load(new PagingSource.LoadParams.Append<>(second.getNextKey(), PAGE, false));
+        assertEquals(history.subList(2 * PAGE, 3 * PAGE), ids(third));
+        
+        // The first two pages were dropped (maxSize); scroll back up one
+        PagingSource.LoadResult.Page<SessionCursor, FocusSession> prepended =
+            load(new PagingSource.LoadParams.Prepend<>(third.getPrevKey(), PAGE, false));
+        assertEquals(history.subList(PAGE, 2 * PAGE), ids(prepended));
+        
+        // Now the third page is dropped; scrolling down again re-appends it
+        PagingSource.LoadResult.Page<SessionCursor, FocusSession> reappended =
+            load(new PagingSource.LoadParams.Append<>(prepended.getNextKey(), PAGE, false));
+        assertEquals(history.subList(2 * PAGE, 3 * PAGE), ids(reappended));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private PagingSource.LoadResult.Page<SessionCursor, FocusSession> load(
+            PagingSource.LoadParams<SessionCursor> params) throws Exception {
+        return (PagingSource.LoadResult.Page<SessionCursor, FocusSession>)
+            source.loadFuture(params).get();
+    }
+    
+    private static List<Long> ids(PagingSource.LoadResult.Page<SessionCursor, FocusSession> page) {
+        List<Long> ids = new ArrayList<>();
+        for (FocusSession session : page.getData()) {
+            ids.add(session.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,140 @@
+package com.smartlearn.app.database;
+
+import static org.junit.Assert.assertEquals;
+
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.smartlearn.app.models.EngagementSample;
+import com.smartlearn.app.models.FocusSession;
+import com.smartlearn.app.utils.TimeRange;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * SessionCompactor retention and the range totals after it,
+ * against an in-memory AppDatabase
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class SessionCompactorTest {
+    
+    private static final String USER = "user-a";
+    private static final int RETENTION_DAYS = 90;
+    private static final long NOW_MS = 1_700_000_000_000L;
+    private static final long OLD_MS = NOW_MS - (RETENTION_DAYS + 1) * DailyRollupDao.DAY_MS;
+    private static final long RECENT_MS = NOW_MS - DailyRollupDao.DAY_MS;
+    
+    private AppDatabase database;
+    private SessionCompactor compactor;
+    
+    @Before
+    public void setUp() {
+        database = Room.inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(),
+                AppDatabase.class)
+            .allowMainThreadQueries()
+            .build();
+        // Small chunks, so the chunk loop runs more than once
+        compactor = new SessionCompactor(database.dailyRollupDao(),
+            database.engagementSampleDao(), RETENTION_DAYS, 3);
+    }
+    
+    @After
+    public void tearDown() {
+        database.close();
+    }
+    
+    @Test
+    public void pruneDeletesOnlyOldUnlinkedSamples() {
+        EngagementSampleDao sampleDao = database.engagementSampleDao();
+        
+        // A recent session with its samples linked
+        FocusSession session = new FocusSession(USER, new Date(RECENT_MS), "FOCUS");
+        session.setEndTime(new Date(RECENT_MS + 60_000));
+        long sessionId = database.focusSessionDao().insertSession(session);
+        sampleDao.insertSamples(samples(RECENT_MS, 4));
+        sampleDao.linkSamplesToSession(sessionId, USER, RECENT_MS, RECENT_MS + 60_000);
+        
+        // Camera without a timer: old and recent unlinked samples
+        sampleDao.insertSamples(samples(OLD_MS, 10));
+        sampleDao.insertSamples(samples(RECENT_MS + 120_000, 5));
+        
+        assertEquals(10, compactor.pruneUnlinkedSamples(NOW_MS));
+        assertEquals(4, count("SELECT COUNT(*) FROM engagement_samples WHERE sessionId IS NOT NULL"));
+        assertEquals(5, count("SELECT COUNT(*) FROM engagement_samples WHERE sessionId IS NULL"));
+        assertEquals(0, compactor.pruneUnlinkedSamples(NOW_MS));
+    }
+    
+    @Test
+    public void rangeTotalsSurviveCompaction() {
+        FocusSessionDao sessionDao = database.focusSessionDao();
+        sessionDao.insertSession(session(USER, OLD_MS, 1_500_000, "FOCUS", true));
+        sessionDao.insertSession(session(USER, OLD_MS + 3_600_000, 300_000, "BREAK", true));
+        sessionDao.insertSession(session(USER, RECENT_MS, 600_000, "FOCUS", false));
+        
+        // Whole local days around both sessions
+        long fromMs = TimeRange.today(OLD_MS).fromMs - DailyRollupDao.DAY_MS;
+        long toMs = TimeRange.today(NOW_MS).toMs;
+        SessionRangeStats before = sessionDao.getStatsInRange(USER, fromMs, toMs);
+        
+        assertEquals(2, compactor.compact(NOW_MS));
+        
+        SessionRangeStats after = sessionDao.getStatsInRange(USER, fromMs, toMs);
+        assertEquals(before.focusMs, after.focusMs);
+        assertEquals(before.breakMs, after.breakMs);
+        assertEquals(before.completedFocusSessions, after.completedFocusSessions);
+        // Only the raw session is still counted
+        assertEquals(1, after.sessionCount);
+        assertEquals(2_100_000, sessionDao.getFocusTimeInRange(USER, fromMs, toMs));
+        
+        // A window of only the old day comes from its rollup
+        TimeRange oldDay = TimeRange.today(OLD_MS);
+        assertEquals(1_500_000, sessionDao.getFocusTimeInRange(USER, oldDay.fromMs, oldDay.toMs));
+    }
+    
+    @Test
+    public void compactDeletesOldSessionsWithoutUser() {
+        FocusSessionDao sessionDao = database.focusSessionDao();
+        sessionDao.insertSession(session(null, OLD_MS, 1_500_000, "FOCUS", true));
+        sessionDao.insertSession(session(null, RECENT_MS, 1_500_000, "FOCUS", true));
+        
+        assertEquals(1, compactor.compact(NOW_MS));
+        assertEquals(1, count("SELECT COUNT(*) FROM focus_sessions WHERE userId IS NULL"));
+        assertEquals(0, count("SELECT COUNT(*) FROM daily_rollups"));
+    }
+    
+    private static FocusSession session(String userId, long startMs, long duration,
+                                        String sessionType, boolean completed) {
+        FocusSession session = new FocusSession(userId, new Date(startMs), sessionType);
+        session.setEndTime(new Date(startMs + duration));
+        session.setDuration(duration);
+        session.setCompleted(completed);
+        return session;
+    }
+    
+    private static List<EngagementSample> samples(long fromMs, int count) {
+        List<EngagementSample> samples = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            samples.add(new EngagementSample(USER, fromMs + i * 100L, 0));
+        }
+        return samples;
+    }
+    
+    private int count(String sql) {
+        try (Cursor cursor = database.query(sql, null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.smartlearn.app.ml;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * The detector tier must provide every feature the active rules read
+ */
+public class DetectorTierTest {
+
+    @Test
+    public void defaultRulesUseClassification() {
+        assertEquals(DetectorTier.CLASSIFICATION, DetectorTier.forRules(EngagementRules.defaults()));
+    }
+
+    @Test
+    public void eyeOrSmileRulesUseClassification() {
+        assertEquals(DetectorTier.CLASSIFICATION, tierFor("TIRED: leftEyeOpen < 0.3\n"));
+        assertEquals(DetectorTier.CLASSIFICATION, tierFor("FOCUSED: smiling > 0.8\n"));
+    }
+
+    @Test
+    public void mouthOnlyRulesUseLandmarks() {
+        assertEquals(DetectorTier.LANDMARKS, tierFor("TIRED: mouthOpen > 0.45\n"));
+    }
+
+    @Test
+    public void mouthAndEyeRulesUseFull() {
+        assertEquals(DetectorTier.FULL,
+            tierFor("TIRED: mouthOpen > 0.45\nTIRED: rightEyeOpen < 0.3\n"));
+    }
+
+    @Test
+    public void poseAndPresenceRulesNeedNoExtras() {
+        // Head pose, box size and presence come with every tier
+        assertEquals(DetectorTier.CLASSIFICATION,
+            tierFor("DISTRACTED: headEulerY |>| 40 && faceSizeRatio < 0.12\n"
+                + "DISTRACTED: facePresent < 0.5\n"));
+    }
+
+    private static int tierFor(String spec) {
+        return DetectorTier.forRules(EngagementRules.compile(spec + "default: FOCUSED\n"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.smartlearn.app.ml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.camera.core.ImageProxy;
+
+import com.smartlearn.app.ml.replay.RecordedFaceDetectorClient;
+import com.smartlearn.app.ml.replay.ReplayImageProxy;
+import com.smartlearn.app.ml.replay.ReplayRoiTracker;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EngagementAnalyzer frame bookkeeping
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class EngagementAnalyzerTest {
+
+    private static final int WIDTH = 160;
+    private static final int HEIGHT = 120;
+
+    @Test
+    public void throwingListenerStillReleasesTheFrame() {
+        RecordedFaceDetectorClient detector = new RecordedFaceDetectorClient();
+        EngagementAnalyzer analyzer = new EngagementAnalyzer(detector);
+        ReplayRoiTracker roiTracker = new ReplayRoiTracker(detector);
+        roiTracker.setGrayscale(true);
+        analyzer.setRoiTracker(roiTracker);
+        analyzer.setCallbackExecutor(Runnable::run);
+
+        boolean[] throwNext = {true};
+        analyzer.setSampleListener(state -> {
+            if (throwNext[0]) {
+                throwNext[0] = false;
+                throw new IllegalStateException("bad frame");
+            }
+        });
+        List<ImageProxy> released = new ArrayList<>();
+
+        ImageProxy first = frame(0);
+        try {
+            analyzer.analyzeFrame(first, released::add);
+        } catch (IllegalStateException expected) {
+            // The listener's exception still reaches the executor
+        }
+        assertEquals(1, released.size());
+
+        // The next frame is analyzed and released as usual
+        ImageProxy second = frame(100_000_000L);
+        assertTrue(analyzer.analyzeFrame(second, released::add));
+        assertEquals(2, released.size());
+        assertEquals(second, released.get(1));
+    }
+
+    private static ImageProxy frame(long timestampNs) {
+        return new ReplayImageProxy(new byte[WIDTH * HEIGHT * 3 / 2], WIDTH, HEIGHT, 0, timestampNs);
+    }
+}
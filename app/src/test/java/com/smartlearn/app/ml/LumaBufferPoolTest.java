@@ -0,0 +1,56 @@
+package com.smartlearn.app.ml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * LumaBufferPool keeps the chroma neutral as crop sizes change
+ */
+public class LumaBufferPoolTest {
+
+    private final LumaBufferPool pool = new LumaBufferPool(1);
+
+    @Test
+    public void smallerImageGetsNeutralChroma() {
+        ByteBuffer big = acquireAndWriteLuma(100, 80);
+        pool.release(big);
+
+        // Same buffer, but the old luma now overlaps the new chroma
+        ByteBuffer small = acquireAndWriteLuma(60, 40);
+        assertSame(big, small);
+        assertNeutralChroma(small, 60, 40);
+    }
+
+    @Test
+    public void sizeJitterKeepsChromaNeutral() {
+        int[][] sizes = {{80, 60}, {84, 62}, {78, 58}, {90, 70}, {64, 48}, {80, 60}};
+        for (int[] size : sizes) {
+            ByteBuffer buffer = acquireAndWriteLuma(size[0], size[1]);
+            assertNeutralChroma(buffer, size[0], size[1]);
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * Acquire a buffer and write non-neutral luma, like FaceRoiTracker does
+     */
+    private ByteBuffer acquireAndWriteLuma(int width, int height) {
+        ByteBuffer buffer = pool.acquire(width, height);
+        for (int i = 0; i < width * height; i++) {
+            buffer.put(i, (byte) 7);
+        }
+        return buffer;
+    }
+
+    private static void assertNeutralChroma(ByteBuffer buffer, int width, int height) {
+        int lumaSize = width * height;
+        assertEquals(lumaSize + lumaSize / 2, buffer.limit());
+        for (int i = lumaSize; i < buffer.limit(); i++) {
+            assertEquals("chroma byte " + i, (byte) 128, buffer.get(i));
+        }
+    }
+}
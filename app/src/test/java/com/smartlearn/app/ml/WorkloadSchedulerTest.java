@@ -0,0 +1,153 @@
+package com.smartlearn.app.ml;
+
+import static org.junit.Assert.assertEquals;
+
+import android.os.PowerManager;
+
+import com.smartlearn.app.ml.replay.RecordedFaceDetectorClient;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WorkloadScheduler policy, checked with fake device signals
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class WorkloadSchedulerTest {
+
+    /**
+     * Device signals set directly by the test
+     */
+    private static class FakeDeviceSignals implements DeviceSignals {
+        boolean powerSaveMode;
+        int batteryPercent = 100;
+        boolean charging;
+        int thermalStatus = PowerManager.THERMAL_STATUS_NONE;
+
+        @Override
+        public boolean isPowerSaveMode() {
+            return powerSaveMode;
+        }
+
+        @Override
+        public int getBatteryPercent() {
+            return batteryPercent;
+        }
+
+        @Override
+        public boolean isCharging() {
+            return charging;
+        }
+
+        @Override
+        public int getThermalStatus() {
+            return thermalStatus;
+        }
+    }
+
+    private final FakeDeviceSignals signals = new FakeDeviceSignals();
+
+    @Test
+    public void normalConditionsRunFull() {
+        assertEquals(WorkloadScheduler.LEVEL_FULL, WorkloadScheduler.evaluate(signals));
+    }
+
+    @Test
+    public void thermalThresholds() {
+        signals.thermalStatus = PowerManager.THERMAL_STATUS_LIGHT;
+        assertEquals(WorkloadScheduler.LEVEL_FULL, WorkloadScheduler.evaluate(signals));
+
+        signals.thermalStatus = PowerManager.THERMAL_STATUS_MODERATE;
+        assertEquals(WorkloadScheduler.LEVEL_REDUCED_RATE, WorkloadScheduler.evaluate(signals));
+
+        signals.thermalStatus = PowerManager.THERMAL_STATUS_SEVERE;
+        assertEquals(WorkloadScheduler.LEVEL_SMALL_ROI, WorkloadScheduler.evaluate(signals));
+
+        signals.thermalStatus = PowerManager.THERMAL_STATUS_CRITICAL;
+        assertEquals(WorkloadScheduler.LEVEL_PAUSED, WorkloadScheduler.evaluate(signals));
+
+        signals.thermalStatus = PowerManager.THERMAL_STATUS_SHUTDOWN;
+        assertEquals(WorkloadScheduler.LEVEL_PAUSED, WorkloadScheduler.evaluate(signals));
+    }
+
+    @Test
+    public void chargingBacksOffAtLightThermal() {
+        signals.charging = true;
+        assertEquals(WorkloadScheduler.LEVEL_FULL, WorkloadScheduler.evaluate(signals));
+
+        signals.thermalStatus = PowerManager.THERMAL_STATUS_LIGHT;
+        assertEquals(WorkloadScheduler.LEVEL_REDUCED_RATE, WorkloadScheduler.evaluate(signals));
+    }
+
+    @Test
+    public void batteryThresholds() {
+        signals.batteryPercent = 31;
+        assertEquals(WorkloadScheduler.LEVEL_FULL, WorkloadScheduler.evaluate(signals));
+
+        signals.batteryPercent = 30;
+        assertEquals(WorkloadScheduler.LEVEL_REDUCED_RATE, WorkloadScheduler.evaluate(signals));
+
+        signals.batteryPercent = 16;
+        assertEquals(WorkloadScheduler.LEVEL_REDUCED_RATE, WorkloadScheduler.evaluate(signals));
+
+        signals.batteryPercent = 15;
+        assertEquals(WorkloadScheduler.LEVEL_SMALL_ROI, WorkloadScheduler.evaluate(signals));
+
+        signals.batteryPercent = 6;
+        assertEquals(WorkloadScheduler.LEVEL_SMALL_ROI, WorkloadScheduler.evaluate(signals));
+
+        signals.batteryPercent = 5;
+        assertEquals(WorkloadScheduler.LEVEL_PAUSED, WorkloadScheduler.evaluate(signals));
+    }
+
+    @Test
+    public void lowBatteryIgnoredWhileChargingOrUnknown() {
+        signals.batteryPercent = 3;
+        signals.charging = true;
+        assertEquals(WorkloadScheduler.LEVEL_FULL, WorkloadScheduler.evaluate(signals));
+
+        signals.charging = false;
+        signals.batteryPercent = DeviceSignals.BATTERY_UNKNOWN;
+        assertEquals(WorkloadScheduler.LEVEL_FULL, WorkloadScheduler.evaluate(signals));
+    }
+
+    @Test
+    public void powerSaveReducesRate() {
+        signals.powerSaveMode = true;
+        assertEquals(WorkloadScheduler.LEVEL_REDUCED_RATE, WorkloadScheduler.evaluate(signals));
+    }
+
+    @Test
+    public void worstSignalWins() {
+        signals.powerSaveMode = true;
+        signals.batteryPercent = 10;
+        signals.thermalStatus = PowerManager.THERMAL_STATUS_CRITICAL;
+        assertEquals(WorkloadScheduler.LEVEL_PAUSED, WorkloadScheduler.evaluate(signals));
+    }
+
+    @Test
+    public void stopRestoresFullWorkloadAndTellsListener() {
+        EngagementAnalyzer analyzer = new EngagementAnalyzer(new RecordedFaceDetectorClient());
+        WorkloadScheduler scheduler = new WorkloadScheduler(
+            signals, analyzer, new FrameRateGovernor(), new FaceRoiTracker());
+        List<Integer> levels = new ArrayList<>();
+        scheduler.setListener(levels::add);
+
+        signals.thermalStatus = PowerManager.THERMAL_STATUS_CRITICAL;
+        scheduler.start();
+        assertEquals(WorkloadScheduler.LEVEL_PAUSED, scheduler.getLevel());
+        assertEquals(true, analyzer.isPaused());
+
+        scheduler.stop();
+        assertEquals(WorkloadScheduler.LEVEL_FULL, scheduler.getLevel());
+        assertEquals(false, analyzer.isPaused());
+        assertEquals(2, levels.size());
+        assertEquals(WorkloadScheduler.LEVEL_FULL, (int) levels.get(1));
+    }
+}
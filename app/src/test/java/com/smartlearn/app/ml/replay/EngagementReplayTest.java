@@ -0,0 +1,102 @@
+package com.smartlearn.app.ml.replay;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.smartlearn.app.ml.EngagementAnalyzer;
+import com.smartlearn.app.ml.EngagementMetrics;
+import com.smartlearn.app.ml.EngagementState;
+import com.smartlearn.app.ml.FaceTrackCache;
+import com.smartlearn.app.ml.FrameRateGovernor;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Replays a recorded frame sequence through the engagement pipeline
+ * (FramePipeline -> analyzeFrame -> ROI crop -> detector -> rules ->
+ * state machine), configured like EngagementEngine.
+ *
+ * The report is written to build/reports/replay/ so CI can keep it.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33)
+public class EngagementReplayTest {
+
+    private static final String SEQUENCE = "replay/focus_tired_away";
+
+    @Test
+    public void replaysFocusTiredAwaySequence() throws Exception {
+        ReplaySequence sequence = ReplaySequence.load(resourceDirectory(SEQUENCE));
+
+        RecordedFaceDetectorClient detector = new RecordedFaceDetectorClient();
+        EngagementAnalyzer analyzer = new EngagementAnalyzer(detector);
+        analyzer.setFrameRateGovernor(new FrameRateGovernor());
+        analyzer.setFaceTrackCache(new FaceTrackCache());
+        EngagementMetrics metrics = new EngagementMetrics();
+        analyzer.setMetrics(metrics);
+
+        EngagementReplayer replayer = new EngagementReplayer(analyzer, detector);
+        ReplayReport report = replayer.run(sequence);
+        writeReport(report);
+
+        // Every frame went through the pipeline; the governor skipped some
+        assertEquals(sequence.size(), report.getFrameCount());
+        assertEquals(sequence.size(), metrics.getFramesReceived());
+        assertEquals(0, metrics.getFramesDropped());
+        assertEquals(replayer.getFramePipeline().getFramesAnalyzed(), report.getAnalyzedCount());
+        assertTrue(report.getAnalyzedCount() > 0);
+        assertTrue(report.getSkippedCount() > 0);
+
+        assertEquals(
+            Arrays.asList(EngagementState.FOCUSED, EngagementState.TIRED,
+                EngagementState.DISTRACTED, EngagementState.FOCUSED),
+            stateTimeline(report, sequence.size())
+        );
+    }
+
+    /**
+     * Distinct consecutive states reported over the run
+     */
+    private static List<Integer> stateTimeline(ReplayReport report, int frameCount) {
+        List<Integer> timeline = new ArrayList<>();
+        for (int i = 0; i < frameCount; i++) {
+            int state = report.getReportedState(i);
+            if (state != EngagementState.NONE
+                    && (timeline.isEmpty() || timeline.get(timeline.size() - 1) != state)) {
+                timeline.add(state);
+            }
+        }
+        return timeline;
+    }
+
+    private static File resourceDirectory(String name) {
+        URL url = EngagementReplayTest.class.getClassLoader().getResource(name);
+        if (url == null) {
+            throw new IllegalStateException("Missing test resource " + name);
+        }
+        return new File(url.getPath());
+    }
+
+    private static void writeReport(ReplayReport report) throws Exception {
+        File directory = new File("build/reports/replay");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            return;
+        }
+        try (Writer frames = new FileWriter(new File(directory, "focus_tired_away_frames.csv"));
+             Writer summary = new FileWriter(new File(directory, "focus_tired_away_summary.txt"))) {
+            report.writeFrames(frames);
+            report.writeSummary(summary);
+        }
+    }
+}
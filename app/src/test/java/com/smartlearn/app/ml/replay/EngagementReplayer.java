@@ -0,0 +1,107 @@
+package com.smartlearn.app.ml.replay;
+
+import com.smartlearn.app.ml.EngagementAnalyzer;
+import com.smartlearn.app.ml.EngagementState;
+import com.smartlearn.app.ml.FramePipeline;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * EngagementReplayer Class
+ *
+ * Feeds a recorded frame sequence through the app's engagement pipeline
+ * and measures it.
+ *
+ * Why this class exists:
+ * - Measuring the engagement pipeline used to need a phone pointed at a face
+ * - With recorded frames (and RecordedFaceDetectorClient instead of ML Kit)
+ *   the same pipeline runs in a Robolectric test, so CI can track latency,
+ *   throughput and state regressions
+ *
+ * How it works:
+ * - Every frame goes in as a ReplayImageProxy through FramePipeline.analyze(),
+ *   exactly like a CameraX frame: backpressure, the frame-rate governor,
+ *   analyzeFrame(), ROI cropping into the luma pool, detection, rules and
+ *   state machine all run
+ * - The analyzer's clock follows the recorded frame timestamps, so the
+ *   governor and state machine behave as they did on the device
+ * - Frames are submitted one at a time and we wait until the pipeline
+ *   closes each one; results are handled on the detector's thread
+ */
+public class EngagementReplayer {
+
+    private static final long FRAME_TIMEOUT_MS = 10_000;
+
+    private final EngagementAnalyzer engagementAnalyzer;
+    private final RecordedFaceDetectorClient recordedClient;
+    private final FramePipeline framePipeline;
+
+    private volatile long currentFrameTimeMs;
+    private volatile int lastSampleState;
+
+    /**
+     * @param engagementAnalyzer Analyzer to measure, using recordedClient as its
+     *                           detector and configured like the app (governor,
+     *                           face track cache, metrics, ...). Its ROI tracker
+     *                           is replaced by a grayscale ReplayRoiTracker.
+     */
+    public EngagementReplayer(EngagementAnalyzer engagementAnalyzer,
+                              RecordedFaceDetectorClient recordedClient) {
+        this.engagementAnalyzer = engagementAnalyzer;
+        this.recordedClient = recordedClient;
+
+        ReplayRoiTracker roiTracker = new ReplayRoiTracker(recordedClient);
+        roiTracker.setGrayscale(true);
+        engagementAnalyzer.setRoiTracker(roiTracker);
+        engagementAnalyzer.setClock(() -> currentFrameTimeMs);
+        engagementAnalyzer.setCallbackExecutor(Runnable::run);
+        engagementAnalyzer.setSampleListener(state -> lastSampleState = state);
+
+        framePipeline = new FramePipeline(engagementAnalyzer);
+    }
+
+    public FramePipeline getFramePipeline() {
+        return framePipeline;
+    }
+
+    /**
+     * Replay every frame of the sequence
+     */
+    public ReplayReport run(ReplaySequence sequence) throws IOException, InterruptedException {
+        List<ReplayFrame> frames = sequence.getFrames();
+        ReplayReport report = new ReplayReport(frames.size());
+
+        long wallStartNs = System.nanoTime();
+        for (int i = 0; i < frames.size(); i++) {
+            ReplayFrame frame = frames.get(i);
+            currentFrameTimeMs = frame.timestampMs;
+
+            byte[] data = sequence.readFrameData(frame);
+            recordedClient.setNextFace(frame.face);
+            ReplayImageProxy imageProxy = new ReplayImageProxy(
+                data, frame.width, frame.height, frame.rotationDegrees,
+                frame.timestampMs * 1_000_000L
+            );
+
+            lastSampleState = EngagementState.NONE;
+            long analyzedBefore = framePipeline.getFramesAnalyzed();
+            long startNs = System.nanoTime();
+            framePipeline.analyze(imageProxy);
+            if (!imageProxy.awaitClosed(FRAME_TIMEOUT_MS)) {
+                throw new IOException("Frame " + i + " did not complete within " + FRAME_TIMEOUT_MS + " ms");
+            }
+            long latencyNs = System.nanoTime() - startNs;
+
+            if (framePipeline.getFramesAnalyzed() > analyzedBefore) {
+                report.addAnalyzed(i, frame.timestampMs, latencyNs, lastSampleState);
+            } else {
+                // Skipped by the governor or dropped by the pipeline
+                report.addSkipped(i, frame.timestampMs);
+            }
+        }
+        report.setWallTimeNs(System.nanoTime() - wallStartNs);
+
+        return report;
+    }
+}
@@ -0,0 +1,109 @@
+package com.smartlearn.app.ml.replay;
+
+import androidx.annotation.Nullable;
+
+import com.google.mlkit.vision.common.InputImage;
+import com.smartlearn.app.ml.DetectedFace;
+import com.smartlearn.app.ml.FaceDetectorClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * RecordedFaceDetectorClient Class
+ *
+ * Deterministic stand-in for ML Kit.
+ *
+ * It ignores the pixels and returns the face recorded with the frame
+ * (set with setNextFace before each detect call). An optional fixed
+ * delay simulates detector cost so latency numbers stay comparable
+ * between runs.
+ *
+ * Recorded faces are in full-frame coordinates. When the ROI tracker
+ * hands the detector a downscaled crop, setImageOrigin() tells us where
+ * that crop is, and the face is moved into the crop's coordinates -
+ * just like ML Kit would report it.
+ */
+public class RecordedFaceDetectorClient implements FaceDetectorClient {
+
+    private final long simulatedLatencyMs;
+
+    private final DetectedFace nextFace = new DetectedFace();
+    // What detect() reports: nextFace moved into image coordinates
+    private final DetectedFace reportedFace = new DetectedFace();
+    private boolean hasNextFace;
+
+    // Where the image passed to detect() sits in the full frame
+    private int imageOffsetX;
+    private int imageOffsetY;
+    private int imageStep = 1;
+
+    private final List<DetectedFace> faces = new ArrayList<>(1);
+
+    public RecordedFaceDetectorClient() {
+        this(0);
+    }
+
+    public RecordedFaceDetectorClient(long simulatedLatencyMs) {
+        this.simulatedLatencyMs = simulatedLatencyMs;
+    }
+
+    /**
+     * Set the result for the next detect() call (null = no face)
+     */
+    public synchronized void setNextFace(@Nullable DetectedFace face) {
+        hasNextFace = face != null;
+        if (face != null) {
+            nextFace.set(face);
+        }
+    }
+
+    /**
+     * Position of the next image within the full frame (see ReplayRoiTracker)
+     */
+    public synchronized void setImageOrigin(int offsetX, int offsetY, int step) {
+        imageOffsetX = offsetX;
+        imageOffsetY = offsetY;
+        imageStep = Math.max(1, step);
+    }
+
+    @Override
+    public void detect(InputImage image, Executor executor, Listener listener) {
+        executor.execute(() -> {
+            if (simulatedLatencyMs > 0) {
+                try {
+                    Thread.sleep(simulatedLatencyMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    listener.onDetectionFailed(e);
+                    return;
+                }
+            }
+
+            synchronized (this) {
+                faces.clear();
+                if (hasNextFace) {
+                    // Full-frame coordinates -> coordinates in the (cropped) image
+                    reportedFace.set(nextFace);
+                    reportedFace.left = (nextFace.left - imageOffsetX) / imageStep;
+                    reportedFace.top = (nextFace.top - imageOffsetY) / imageStep;
+                    reportedFace.right = (nextFace.right - imageOffsetX) / imageStep;
+                    reportedFace.bottom = (nextFace.bottom - imageOffsetY) / imageStep;
+                    faces.add(reportedFace);
+                }
+                listener.onFacesDetected(faces);
+            }
+        });
+    }
+
+    @Override
+    public void setTier(int tier) {
+        // Recorded results do not depend on the tier
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+}
@@ -0,0 +1,41 @@
+package com.smartlearn.app.ml.replay;
+
+import androidx.annotation.Nullable;
+
+import com.smartlearn.app.ml.DetectedFace;
+
+/**
+ * ReplayFrame Class
+ *
+ * One recorded camera frame: where its raw NV21 data lives, when it was
+ * captured, how it was rotated and (optionally) what the detector found.
+ */
+public class ReplayFrame {
+
+    public final String fileName;
+    public final long timestampMs;
+    public final int rotationDegrees;
+    public final int width;
+    public final int height;
+
+    // Recorded detector output (null = no face in this frame)
+    @Nullable
+    public final DetectedFace face;
+
+    public ReplayFrame(String fileName, long timestampMs, int rotationDegrees,
+                       int width, int height, @Nullable DetectedFace face) {
+        this.fileName = fileName;
+        this.timestampMs = timestampMs;
+        this.rotationDegrees = rotationDegrees;
+        this.width = width;
+        this.height = height;
+        this.face = face;
+    }
+
+    /**
+     * Size of the NV21 data for this frame
+     */
+    public int getDataSize() {
+        return width * height * 3 / 2;
+    }
+}
@@ -0,0 +1,184 @@
+package com.smartlearn.app.ml.replay;
+
+import android.graphics.ImageFormat;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.media.Image;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.camera.core.ImageInfo;
+import androidx.camera.core.ImageProxy;
+import androidx.camera.core.impl.TagBundle;
+import androidx.camera.core.impl.utils.ExifData;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReplayImageProxy Class
+ *
+ * A recorded NV21 frame dressed up as a CameraX ImageProxy, so it can go
+ * through FramePipeline and EngagementAnalyzer.analyzeFrame() like a
+ * camera frame.
+ *
+ * - Planes are views into the NV21 array (Y, then U and V interleaved)
+ * - getImage() returns null: there is no media Image, so the analyzer
+ *   needs a grayscale ROI tracker (as the app uses)
+ * - close() is recorded, so the replayer knows when the pipeline is done
+ */
+public class ReplayImageProxy implements ImageProxy {
+
+    private final int width;
+    private final int height;
+    private final PlaneProxy[] planes;
+    private final ImageInfo imageInfo;
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private Rect cropRect;
+
+    public ReplayImageProxy(byte[] nv21, int width, int height, int rotationDegrees,
+                            long timestampNs) {
+        this.width = width;
+        this.height = height;
+        this.cropRect = new Rect(0, 0, width, height);
+
+        int lumaSize = width * height;
+        planes = new PlaneProxy[] {
+            new Plane(slice(nv21, 0, lumaSize), width, 1),
+            // NV21 stores V first: U starts one byte later, both step by 2
+            new Plane(slice(nv21, lumaSize + 1, lumaSize / 2 - 1), width, 2),
+            new Plane(slice(nv21, lumaSize, lumaSize / 2 - 1), width, 2)
+        };
+        imageInfo = new Info(timestampNs, rotationDegrees);
+    }
+
+    /**
+     * Wait until the pipeline has closed this frame
+     */
+    public boolean awaitClosed(long timeoutMs) throws InterruptedException {
+        return closed.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isClosed() {
+        return closed.getCount() == 0;
+    }
+
+    @Override
+    public void close() {
+        closed.countDown();
+    }
+
+    @NonNull
+    @Override
+    public Rect getCropRect() {
+        return cropRect;
+    }
+
+    @Override
+    public void setCropRect(@Nullable Rect rect) {
+        cropRect = rect != null ? rect : new Rect(0, 0, width, height);
+    }
+
+    @Override
+    public int getFormat() {
+        return ImageFormat.YUV_420_888;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @NonNull
+    @Override
+    public PlaneProxy[] getPlanes() {
+        return planes;
+    }
+
+    @NonNull
+    @Override
+    public ImageInfo getImageInfo() {
+        return imageInfo;
+    }
+
+    @Nullable
+    @Override
+    public Image getImage() {
+        return null;
+    }
+
+    private static ByteBuffer slice(byte[] data, int offset, int length) {
+        return ByteBuffer.wrap(data, offset, length).slice();
+    }
+
+    private static final class Plane implements PlaneProxy {
+        private final ByteBuffer buffer;
+        private final int rowStride;
+        private final int pixelStride;
+
+        Plane(ByteBuffer buffer, int rowStride, int pixelStride) {
+            this.buffer = buffer;
+            this.rowStride = rowStride;
+            this.pixelStride = pixelStride;
+        }
+
+        @Override
+        public int getRowStride() {
+            return rowStride;
+        }
+
+        @Override
+        public int getPixelStride() {
+            return pixelStride;
+        }
+
+        @NonNull
+        @Override
+        public ByteBuffer getBuffer() {
+            return buffer;
+        }
+    }
+
+    private static final class Info implements ImageInfo {
+        private final long timestampNs;
+        private final int rotationDegrees;
+
+        Info(long timestampNs, int rotationDegrees) {
+            this.timestampNs = timestampNs;
+            this.rotationDegrees = rotationDegrees;
+        }
+
+        @NonNull
+        @Override
+        public TagBundle getTagBundle() {
+            return TagBundle.emptyBundle();
+        }
+
+        @Override
+        public long getTimestamp() {
+            return timestampNs;
+        }
+
+        @Override
+        public int getRotationDegrees() {
+            return rotationDegrees;
+        }
+
+        @NonNull
+        @Override
+        public Matrix getSensorToBufferTransformMatrix() {
+            return new Matrix();
+        }
+
+        @Override
+        public void populateExifData(@NonNull ExifData.Builder exifBuilder) {
+            exifBuilder.setOrientationDegrees(rotationDegrees);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.smartlearn.app.ml.replay;
+
+import com.smartlearn.app.ml.EngagementState;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * ReplayReport Class
+ *
+ * Results of one replay run: per-frame latency, throughput and the
+ * engagement state timeline.
+ *
+ * Output:
+ * - writeFrames(): CSV, one row per frame (good for plotting and diffing in CI)
+ * - writeSummary(): throughput, latency percentiles and state transitions
+ */
+public class ReplayReport {
+
+    private final int frameCount;
+    private final long[] timestampMs;
+    private final boolean[] analyzed;
+    private final long[] latencyNs;
+    private final int[] reportedState;
+
+    private int analyzedCount;
+    private long wallTimeNs;
+
+    ReplayReport(int frameCount) {
+        this.frameCount = frameCount;
+        timestampMs = new long[frameCount];
+        analyzed = new boolean[frameCount];
+        latencyNs = new long[frameCount];
+        reportedState = new int[frameCount];
+        Arrays.fill(reportedState, EngagementState.NONE);
+    }
+
+    void addSkipped(int index, long frameTimestampMs) {
+        timestampMs[index] = frameTimestampMs;
+    }
+
+    void addAnalyzed(int index, long frameTimestampMs, long frameLatencyNs, int state) {
+        timestampMs[index] = frameTimestampMs;
+        analyzed[index] = true;
+        latencyNs[index] = frameLatencyNs;
+        reportedState[index] = state;
+        analyzedCount++;
+    }
+
+    void setWallTimeNs(long wallTimeNs) {
+        this.wallTimeNs = wallTimeNs;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getAnalyzedCount() {
+        return analyzedCount;
+    }
+
+    public int getSkippedCount() {
+        return frameCount - analyzedCount;
+    }
+
+    /**
+     * State reported for a frame (EngagementState code), NONE if skipped
+     */
+    public int getReportedState(int index) {
+        return reportedState[index];
+    }
+
+    /**
+     * Analyzed frames per second of wall time
+     */
+    public double getThroughputFps() {
+        if (wallTimeNs == 0) {
+            return 0;
+        }
+        return analyzedCount / (wallTimeNs / 1e9);
+    }
+
+    /**
+     * Latency percentile over analyzed frames, in nanoseconds
+     *
+     * @param percentile 0-100
+     */
+    public long getLatencyPercentileNs(double percentile) {
+        if (analyzedCount == 0) {
+            return 0;
+        }
+        long[] sorted = new long[analyzedCount];
+        int n = 0;
+        for (int i = 0; i < frameCount; i++) {
+            if (analyzed[i]) {
+                sorted[n++] = latencyNs[i];
+            }
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * CSV with one row per frame
+     */
+    public void writeFrames(Writer writer) throws IOException {
+        writer.write("frame,timestampMs,analyzed,latencyUs,state\n");
+        for (int i = 0; i < frameCount; i++) {
+            writer.write(i + "," + timestampMs[i] + "," + (analyzed[i] ? 1 : 0) + ","
+                + (analyzed[i] ? latencyNs[i] / 1000 : "") + ","
+                + (reportedState[i] != EngagementState.NONE ? EngagementState.toLabel(reportedState[i]) : "")
+                + "\n");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Human-readable summary and state timeline
+     */
+    public void writeSummary(Writer writer) throws IOException {
+        writer.write("frames: " + frameCount + "\n");
+        writer.write("analyzed: " + analyzedCount + "\n");
+        writer.write("skipped: " + getSkippedCount() + "\n");
+        writer.write(String.format(Locale.US, "throughputFps: %.1f%n", getThroughputFps()));
+        writer.write("latencyUs p50: " + getLatencyPercentileNs(50) / 1000 + "\n");
+        writer.write("latencyUs p95: " + getLatencyPercentileNs(95) / 1000 + "\n");
+        writer.write("latencyUs p99: " + getLatencyPercentileNs(99) / 1000 + "\n");
+        writer.write("latencyUs max: " + getLatencyPercentileNs(100) / 1000 + "\n");
+
+        writer.write("timeline:\n");
+        int lastState = EngagementState.NONE;
+        for (int i = 0; i < frameCount; i++) {
+            int state = reportedState[i];
+            if (state != EngagementState.NONE && state != lastState) {
+                writer.write("  " + timestampMs[i] + " " + EngagementState.toLabel(state) + "\n");
+                lastState = state;
+            }
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,32 @@
+package com.smartlearn.app.ml.replay;
+
+import androidx.annotation.Nullable;
+import androidx.camera.core.ImageProxy;
+
+import com.smartlearn.app.ml.FaceRoiTracker;
+
+/**
+ * ReplayRoiTracker Class
+ *
+ * The app's FaceRoiTracker (same crops, same luma pool), which also tells
+ * the RecordedFaceDetectorClient where each prepared image sits in the
+ * full frame, so recorded faces can be reported in crop coordinates.
+ */
+public class ReplayRoiTracker extends FaceRoiTracker {
+
+    private final RecordedFaceDetectorClient recordedClient;
+
+    public ReplayRoiTracker(RecordedFaceDetectorClient recordedClient) {
+        this.recordedClient = recordedClient;
+    }
+
+    @Nullable
+    @Override
+    public synchronized RoiFrame prepare(ImageProxy imageProxy) {
+        RoiFrame frame = super.prepare(imageProxy);
+        if (frame != null) {
+            recordedClient.setImageOrigin(frame.getOffsetX(), frame.getOffsetY(), frame.getStep());
+        }
+        return frame;
+    }
+}
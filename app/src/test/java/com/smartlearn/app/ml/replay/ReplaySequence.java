@@ -0,0 +1,129 @@
+package com.smartlearn.app.ml.replay;
+
+import com.smartlearn.app.ml.DetectedFace;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ReplaySequence Class
+ *
+ * A recorded sequence of camera frames loaded from a directory.
+ *
+ * Directory layout:
+ * - frames.txt: one line per frame (lines starting with # are ignored)
+ * - one raw NV21 file per frame, named in frames.txt
+ *
+ * frames.txt line format:
+ *   fileName timestampMs rotation width height
+ *   fileName timestampMs rotation width height face left top right bottom leftEye rightEye smiling eulerY eulerZ
+ *
+ * The optional "face" part is the detector output recorded with the frame
+ * (mouthOpenRatio is not recorded and stays NaN).
+ * RecordedFaceDetectorClient plays it back so no real detector is needed.
+ */
+public class ReplaySequence {
+
+    public static final String MANIFEST_FILE = "frames.txt";
+
+    private final File directory;
+    private final List<ReplayFrame> frames;
+
+    // Reused between frames - callers must finish with the data before reading the next frame
+    private byte[] frameBuffer = new byte[0];
+
+    private ReplaySequence(File directory, List<ReplayFrame> frames) {
+        this.directory = directory;
+        this.frames = frames;
+    }
+
+    /**
+     * Load the manifest of a recorded sequence
+     */
+    public static ReplaySequence load(File directory) throws IOException {
+        List<ReplayFrame> frames = new ArrayList<>();
+        File manifest = new File(directory, MANIFEST_FILE);
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(manifest))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                frames.add(parseLine(line, lineNumber));
+            }
+        }
+
+        return new ReplaySequence(directory, frames);
+    }
+
+    private static ReplayFrame parseLine(String line, int lineNumber) throws IOException {
+        String[] parts = line.split("\\s+");
+        if (parts.length != 5 && parts.length != 15) {
+            throw new IOException(MANIFEST_FILE + " line " + lineNumber + ": expected 5 or 15 fields");
+        }
+
+        try {
+            DetectedFace face = null;
+            if (parts.length == 15) {
+                if (!"face".equals(parts[5])) {
+                    throw new IOException(MANIFEST_FILE + " line " + lineNumber + ": expected 'face'");
+                }
+                face = new DetectedFace();
+                face.left = Integer.parseInt(parts[6]);
+                face.top = Integer.parseInt(parts[7]);
+                face.right = Integer.parseInt(parts[8]);
+                face.bottom = Integer.parseInt(parts[9]);
+                face.leftEyeOpenProbability = Float.parseFloat(parts[10]);
+                face.rightEyeOpenProbability = Float.parseFloat(parts[11]);
+                face.smilingProbability = Float.parseFloat(parts[12]);
+                face.headEulerAngleY = Float.parseFloat(parts[13]);
+                face.headEulerAngleZ = Float.parseFloat(parts[14]);
+            }
+
+            return new ReplayFrame(
+                parts[0],
+                Long.parseLong(parts[1]),
+                Integer.parseInt(parts[2]),
+                Integer.parseInt(parts[3]),
+                Integer.parseInt(parts[4]),
+                face
+            );
+        } catch (NumberFormatException e) {
+            throw new IOException(MANIFEST_FILE + " line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    public List<ReplayFrame> getFrames() {
+        return Collections.unmodifiableList(frames);
+    }
+
+    public int size() {
+        return frames.size();
+    }
+
+    /**
+     * Read the NV21 data of a frame into a reused buffer
+     */
+    public byte[] readFrameData(ReplayFrame frame) throws IOException {
+        int size = frame.getDataSize();
+        if (frameBuffer.length != size) {
+            frameBuffer = new byte[size];
+        }
+        try (DataInputStream input = new DataInputStream(
+                new FileInputStream(new File(directory, frame.fileName)))) {
+            input.readFully(frameBuffer);
+        }
+        return frameBuffer;
+    }
+}